@@ -0,0 +1,129 @@
+package org.lab.bench;
+
+import org.joml.Matrix4f;
+import org.lab.render.BlockInstances;
+import org.lab.render.ChunkFrustumCuller;
+import org.lab.render.ChunkOrigins;
+import org.lab.world.Chunk;
+import org.lab.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of immediate-mode BlockRenderer.render(World, ...): frustum culling
+ * chunks and packing the visible blocks into the instance buffer.
+ *
+ * Does the same work as the renderer minus the GL calls, writing into a
+ * direct buffer instead of the mapped streaming VBO. The camera stands over the
+ * middle of the terrain looking toward one edge, so chunks behind it are culled.
+ * Instance counts are printed at the end of the trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchingBenchmark {
+    @Param({"64", "256"})
+    public int size;
+
+    private World world;
+    private final ChunkFrustumCuller culler = new ChunkFrustumCuller();
+    private final Matrix4f viewProjection = new Matrix4f();
+    private InstanceWriter writer;
+    private int lastCount;
+
+    /**
+     * Visitor that packs blocks like BlockRenderer.addBlock.
+     */
+    private static final class InstanceWriter implements World.BlockVisitor {
+        final ByteBuffer buffer;
+        final ChunkOrigins origins = new ChunkOrigins();
+        int count;
+
+        InstanceWriter(int capacity) {
+            this.buffer = ByteBuffer.allocateDirect(capacity * BlockInstances.STRIDE).order(ByteOrder.nativeOrder());
+        }
+
+        void reset() {
+            count = 0;
+            origins.clear();
+        }
+
+        @Override
+        public void visit(int x, int y, int z, int textureIndex) {
+            BlockInstances.write(buffer, count++, origins.acquire(x, y, z), x, y, z, textureIndex,
+                BlockInstances.SCALE_FULL);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        world = new World();
+        for (int x = 0; x < size; x++) {
+            for (int z = 0; z < size; z++) {
+                int height = 3 + (int) (2 * Math.sin(x * 0.15) * Math.cos(z * 0.15));
+                for (int y = 0; y <= height; y++) {
+                    world.setBlock(x, y, z, 0);
+                }
+            }
+        }
+
+        float center = size / 2.0f;
+        viewProjection.perspective((float) Math.toRadians(70.0), 16.0f / 9.0f, 0.1f, 1000.0f)
+            .lookAt(center, 12.0f, center, center, 0.0f, size, 0.0f, 1.0f, 0.0f);
+        writer = new InstanceWriter(world.getBlockCount());
+    }
+
+    @Benchmark
+    public int batchVisibleChunks() {
+        writer.reset();
+        culler.update(viewProjection);
+        List<Chunk> chunks = world.getChunks();
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            if (culler.isChunkVisible(chunk.getChunkX(), chunk.getChunkY(), chunk.getChunkZ())) {
+                chunk.forEachBlock(writer);
+            }
+        }
+        lastCount = writer.count;
+        return writer.count;
+    }
+
+    @Benchmark
+    public int batchAllChunks() {
+        writer.reset();
+        List<Chunk> chunks = world.getChunks();
+        for (int i = 0; i < chunks.size(); i++) {
+            chunks.get(i).forEachBlock(writer);
+        }
+        lastCount = writer.count;
+        return writer.count;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println();
+        System.out.println("blocks=" + world.getBlockCount()
+            + " chunks=" + world.getChunks().size()
+            + " visibleChunks=" + culler.getVisibleCount()
+            + " instances=" + lastCount);
+    }
+}
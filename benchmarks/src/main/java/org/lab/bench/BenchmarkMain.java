@@ -0,0 +1,34 @@
+package org.lab.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: runs JMH with machine-readable JSON results
+ * written to jmh-result.json unless -rf / -rff are given.
+ *
+ * All other arguments go straight to JMH, e.g.
+ *   java -jar benchmarks/target/benchmarks.jar WorldBenchmark -p size=1000000
+ *   java -jar benchmarks/target/benchmarks.jar -rf csv -rff results.csv
+ */
+public final class BenchmarkMain {
+    private static final String DEFAULT_FORMAT = "json";
+    private static final String DEFAULT_FILE = "jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add(DEFAULT_FORMAT);
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.add("-rff");
+            jmhArgs.add(DEFAULT_FILE);
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,120 @@
+package org.lab.bench;
+
+import org.lab.world.LongIntHashMap;
+import org.lab.world.LongObjectHashMap;
+import org.lab.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the primitive long-keyed maps against the boxed HashMap path
+ * World used before, for block lookups (hasBlock) and heightmap updates.
+ *
+ * Half of the probed coordinates exist in the map, half miss,
+ * matching the mix seen by collision checks and raycasts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongMapBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private final Map<Long, Object> boxedBlocks = new HashMap<>();
+    private final Map<Long, Integer> boxedHeights = new HashMap<>();
+    private LongObjectHashMap<Object> blocks;
+    private LongIntHashMap heights;
+
+    private long[] probeKeys;
+    private int[] probeHeights;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        blocks = new LongObjectHashMap<>();
+        heights = new LongIntHashMap(Integer.MIN_VALUE);
+        Object block = new Object();
+
+        int side = (int) Math.ceil(Math.cbrt(size));
+        long[] present = new long[size];
+        for (int i = 0; i < size; i++) {
+            int x = i % side;
+            int y = (i / side) % side;
+            int z = i / (side * side);
+            long key = World.packCoord(x, y, z);
+            present[i] = key;
+            boxedBlocks.put(key, block);
+            blocks.put(key, block);
+            boxedHeights.put(World.packXZ(x, z), y);
+            heights.put(World.packXZ(x, z), y);
+        }
+
+        probeKeys = new long[PROBES];
+        probeHeights = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeKeys[i] = random.nextBoolean()
+                ? present[random.nextInt(size)]
+                : World.packCoord(random.nextInt(side) - side, random.nextInt(side), random.nextInt(side));
+            probeHeights[i] = random.nextInt(side);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public boolean hashMapContains() {
+        return boxedBlocks.containsKey(probeKeys[next()]);
+    }
+
+    @Benchmark
+    public boolean longMapContains() {
+        return blocks.containsKey(probeKeys[next()]);
+    }
+
+    @Benchmark
+    public int hashMapHeightUpdate() {
+        int i = next();
+        long key = probeKeys[i];
+        Integer current = boxedHeights.get(key);
+        if (current == null || probeHeights[i] > current) {
+            boxedHeights.put(key, probeHeights[i]);
+            return probeHeights[i];
+        }
+        return current;
+    }
+
+    @Benchmark
+    public int longMapHeightUpdate() {
+        int i = next();
+        long key = probeKeys[i];
+        int current = heights.get(key);
+        if (probeHeights[i] > current) {
+            heights.put(key, probeHeights[i]);
+            return probeHeights[i];
+        }
+        return current;
+    }
+}
@@ -0,0 +1,90 @@
+package org.lab.bench;
+
+import org.lab.render.ChunkMeshData;
+import org.lab.render.ChunkMesher;
+import org.lab.world.Chunk;
+import org.lab.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build time of every chunk mesh in a terrain scene, per-face culled vs greedy.
+ * Vertex counts for each mode are printed at the end of the trial.
+ *
+ * The scene mirrors the demo: flat grass layers, a rolling hill, and a
+ * concrete walkway strip, so greedy merging has large coplanar regions to work with.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeshingBenchmark {
+    @Param({"CULLED", "GREEDY"})
+    public ChunkMesher.Mode mode;
+
+    @Param({"64"})
+    public int size;
+
+    private World world;
+    private ChunkMesher mesher;
+    private final ChunkMeshData mesh = new ChunkMeshData(4096);
+    private long vertexCount;
+
+    @Setup
+    public void setup() {
+        world = new World();
+        for (int x = 0; x < size; x++) {
+            for (int z = 0; z < size; z++) {
+                int height = 3 + (int) (2 * Math.sin(x * 0.15) * Math.cos(z * 0.15));
+                for (int y = 0; y <= height; y++) {
+                    world.setBlock(x, y, z, 0); // grass
+                }
+            }
+        }
+        // Concrete walkway across the middle
+        for (int x = 0; x < size; x++) {
+            for (int z = size / 2 - 1; z <= size / 2 + 1; z++) {
+                world.setBlock(x, world.getHeightAt(x, z) + 1, z, 1);
+            }
+        }
+        mesher = new ChunkMesher(mode);
+    }
+
+    @Benchmark
+    public long meshAllChunks() {
+        long vertices = 0;
+        List<Chunk> chunks = world.getChunks();
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            mesher.build(world, chunk.getChunkX(), chunk.getChunkY(), chunk.getChunkZ(), mesh);
+            vertices += mesh.getVertexCount();
+        }
+        vertexCount = vertices;
+        return vertices;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println();
+        System.out.println("[" + mode + "] blocks=" + world.getBlockCount()
+            + " chunks=" + world.getChunks().size()
+            + " vertices=" + vertexCount
+            + " triangles=" + vertexCount / 2);
+    }
+}
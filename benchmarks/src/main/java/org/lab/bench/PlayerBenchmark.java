@@ -0,0 +1,82 @@
+package org.lab.bench;
+
+import org.lab.engine.Player;
+import org.lab.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One physics tick of Player.update while walking through dense terrain.
+ *
+ * The terrain is a solid floor a few layers deep with random 1-3 block pillars
+ * on the given share of columns, so most ticks resolve collisions on several
+ * axes. The player turns slowly, jumps every 1.5 s of game time and is put
+ * back in the middle when it leaves the terrain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+    private static final float TICK_SECONDS = 1.0f / 60.0f;
+    private static final int HALF_EXTENT = 32;
+    private static final int FLOOR_DEPTH = 4;
+
+    @Param({"0.1", "0.3"})
+    public float pillarDensity;
+
+    private World world;
+    private Player player;
+    private long tick;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        world = new World();
+        for (int x = -HALF_EXTENT; x <= HALF_EXTENT; x++) {
+            for (int z = -HALF_EXTENT; z <= HALF_EXTENT; z++) {
+                for (int y = -FLOOR_DEPTH + 1; y <= 0; y++) {
+                    world.setBlock(x, y, z, 0);
+                }
+                if (random.nextFloat() < pillarDensity && (Math.abs(x) > 1 || Math.abs(z) > 1)) {
+                    int height = 1 + random.nextInt(3);
+                    for (int y = 1; y <= height; y++) {
+                        world.setBlock(x, y, z, 2);
+                    }
+                }
+            }
+        }
+        player = new Player(0, 1, 0);
+    }
+
+    @Benchmark
+    public float update() {
+        tick++;
+        if (tick % 90 == 0) {
+            player.jump();
+        }
+        player.move(1.0f, 0.0f, (tick * 0.75f) % 360.0f, TICK_SECONDS);
+        player.update(TICK_SECONDS, world);
+
+        float x = player.getPosition().x;
+        float z = player.getPosition().z;
+        if (player.getPosition().y < -20 || Math.abs(x) > HALF_EXTENT - 2 || Math.abs(z) > HALF_EXTENT - 2) {
+            player.reset(0, 1, 0);
+        }
+        return player.getPosition().y;
+    }
+}
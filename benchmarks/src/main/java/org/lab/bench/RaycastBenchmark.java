@@ -0,0 +1,100 @@
+package org.lab.bench;
+
+import org.joml.Vector3f;
+import org.lab.util.RaycastResult;
+import org.lab.util.Raycaster;
+import org.lab.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raycaster.cast over a flat floor at different ray lengths.
+ *
+ * Hit rays start at eye height and slope down to reach the floor at about the
+ * given distance; miss rays run level above the floor for the full distance.
+ * Both step through roughly distance voxels, so cost should grow linearly.
+ *
+ * The *Reused variants cast into one RaycastResult through the allocation-free
+ * overload. Run with -prof gc: their gc.alloc.rate.norm should be ~0 B/op,
+ * while castHit allocates a result per hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RaycastBenchmark {
+    private static final int RAYS = 256;
+    private static final float EYE_HEIGHT = 1.5f;
+
+    @Param({"8", "32", "128"})
+    public int distance;
+
+    private World world;
+    private final Vector3f origin = new Vector3f(0, EYE_HEIGHT, 0);
+    private Vector3f[] hitDirections;
+    private Vector3f[] missDirections;
+    private final RaycastResult result = new RaycastResult();
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        world = new World();
+        int extent = distance + 2;
+        for (int x = -extent; x <= extent; x++) {
+            for (int z = -extent; z <= extent; z++) {
+                world.setBlock(x, 0, z, 0);
+            }
+        }
+
+        Random random = new Random(42);
+        hitDirections = new Vector3f[RAYS];
+        missDirections = new Vector3f[RAYS];
+        for (int i = 0; i < RAYS; i++) {
+            double yaw = random.nextDouble() * Math.PI * 2.0;
+            float dx = (float) Math.cos(yaw);
+            float dz = (float) Math.sin(yaw);
+            // Floor voxels occupy y in [0, 1): drop EYE_HEIGHT - 1 over the horizontal distance
+            hitDirections[i] = new Vector3f(dx, -(EYE_HEIGHT - 1.0f) / distance, dz).normalize();
+            missDirections[i] = new Vector3f(dx, 0.0f, dz);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (RAYS - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public RaycastResult castHit() {
+        return Raycaster.cast(world, origin, hitDirections[next()], distance * 1.5f);
+    }
+
+    @Benchmark
+    public RaycastResult castMiss() {
+        return Raycaster.cast(world, origin, missDirections[next()], distance);
+    }
+
+    @Benchmark
+    public boolean castHitReused() {
+        return Raycaster.cast(world, origin, hitDirections[next()], distance * 1.5f, result);
+    }
+
+    @Benchmark
+    public boolean castMissReused() {
+        return Raycaster.cast(world, origin, missDirections[next()], distance, result);
+    }
+}
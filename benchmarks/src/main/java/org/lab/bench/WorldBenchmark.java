@@ -0,0 +1,126 @@
+package org.lab.bench;
+
+import org.lab.world.Block;
+import org.lab.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * World block edits and lookups at world sizes from 10k to 10M blocks.
+ *
+ * The world is a solid cube of the given size. Lookups probe a mix of
+ * existing and empty coordinates; edits are paired (add then remove, or
+ * overwrite) so the world keeps its size across iterations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WorldBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private World world;
+    private int side;
+
+    // Probe coordinates, three ints per probe
+    private int[] lookups;   // half existing, half empty
+    private int[] existing;  // blocks inside the cube
+    private Block[] fresh;   // empty cells just above the cube
+    private int cursor;
+    private long edits;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        world = new World();
+        side = (int) Math.ceil(Math.cbrt(size));
+        for (int i = 0; i < size; i++) {
+            world.setBlock(i % side, i / (side * side), (i / side) % side, 0);
+        }
+
+        lookups = new int[PROBES * 3];
+        existing = new int[PROBES * 3];
+        fresh = new Block[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            int index = random.nextInt(size);
+            int x = index % side;
+            int y = index / (side * side);
+            int z = (index / side) % side;
+            existing[i * 3] = x;
+            existing[i * 3 + 1] = y;
+            existing[i * 3 + 2] = z;
+
+            boolean hit = random.nextBoolean();
+            lookups[i * 3] = hit ? x : x - side;
+            lookups[i * 3 + 1] = y;
+            lookups[i * 3 + 2] = z;
+
+            fresh[i] = new Block(random.nextInt(side), side + 1 + random.nextInt(4), random.nextInt(side), 1);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public boolean hasBlock() {
+        int i = next() * 3;
+        return world.hasBlock(lookups[i], lookups[i + 1], lookups[i + 2]);
+    }
+
+    /**
+     * Adds a block in empty space above the cube, then removes it again.
+     */
+    @Benchmark
+    public Block addBlockThenRemove() {
+        Block block = fresh[next()];
+        world.addBlock(block);
+        return world.removeBlock((int) block.getPosition().x, (int) block.getPosition().y,
+            (int) block.getPosition().z);
+    }
+
+    /**
+     * Removes an existing block inside the cube, then puts it back.
+     */
+    @Benchmark
+    public Block removeBlockThenAdd() {
+        int i = next() * 3;
+        int x = existing[i];
+        int y = existing[i + 1];
+        int z = existing[i + 2];
+        Block removed = world.removeBlock(x, y, z);
+        world.setBlock(x, y, z, 0);
+        return removed;
+    }
+
+    /**
+     * Replaces the type of an existing block (no insertion, fires a change event).
+     */
+    @Benchmark
+    public int setBlockReplace() {
+        int i = next();
+        // Flip the type on every pass over the probes so each write is a real change
+        int type = 1 - ((int) (edits++ / PROBES) & 1);
+        world.setBlock(existing[i * 3], existing[i * 3 + 1], existing[i * 3 + 2], type);
+        return type;
+    }
+}
@@ -0,0 +1,157 @@
+package org.lab;
+
+import org.joml.Vector3f;
+import org.lab.engine.FixedTimestep;
+import org.lab.engine.PlayerInput;
+import org.lab.engine.Simulation;
+import org.lab.metrics.Metrics;
+import org.lab.metrics.MetricsExporter;
+import org.lab.world.Block;
+import org.lab.world.TestScene;
+import org.lab.world.World;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless entry point: runs the simulation with scripted input and no window.
+ *
+ * Only world, player and clock classes are used here, so GLFW, OpenGL and the
+ * render package are never loaded. Prints tick timing statistics at the end.
+ *
+ * Usage: HeadlessMain [ticks] [--realtime] [--hill] [--metrics file]
+ *   ticks           number of ticks to run (default 6000, 100 s of game time)
+ *   --realtime      pace ticks at the tick rate instead of running flat out
+ *   --hill          use the demo hill scene instead of the flat test floor
+ *   --metrics file  export engine metrics every few seconds and at exit
+ *                   (Prometheus text, or JSON if the name ends in .json)
+ *
+ * Maven: mvn compile exec:java@headless -Dexec.args="6000 --realtime"
+ */
+public class HeadlessMain {
+    private static final int TICK_RATE = 60;
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    private static final int DEFAULT_TICKS = 6000;
+
+    /**
+     * Sets the input for a tick, and may edit the world before it runs.
+     */
+    @FunctionalInterface
+    public interface InputScript {
+        void apply(long tick, PlayerInput input, World world);
+    }
+
+    // Turn per tick of the default script: one lap every 2 s, a circle about
+    // 3 blocks across that stays on the 10x10 flat floor
+    private static final float SCRIPT_TURN_DEGREES = 3.0f;
+
+    /**
+     * Default script: walks forward in a tight circle, jumps every 1.5 s,
+     * and toggles a pillar on the floor every second.
+     */
+    static final InputScript DEFAULT_SCRIPT = (tick, input, world) -> {
+        input.clear();
+        input.forward = 1;
+        input.yaw = (tick * SCRIPT_TURN_DEGREES) % 360.0f;
+        input.jump = tick % 90 == 0;
+        if (tick % TICK_RATE == 0) {
+            if (world.hasBlock(2, 1, -2)) {
+                world.removeBlock(2, 1, -2);
+            } else {
+                world.addBlock(new Block(2, 1, -2, 1));
+            }
+        }
+    };
+
+    public static void main(String[] args) {
+        int ticks = DEFAULT_TICKS;
+        boolean realtime = false;
+        boolean hill = false;
+        Path metricsPath = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--realtime" -> realtime = true;
+                case "--hill" -> hill = true;
+                case "--metrics" -> metricsPath = Path.of(args[++i]);
+                default -> ticks = Integer.parseInt(args[i]);
+            }
+        }
+
+        World world = new World();
+        if (hill) {
+            TestScene.buildHill(world);
+        } else {
+            TestScene.buildFlat(world);
+        }
+        Simulation simulation = new Simulation(world, 0, 1, 0);
+        System.out.println("Headless simulation: " + world.getBlockCount() + " blocks, "
+            + ticks + " ticks at " + TICK_RATE + " Hz" + (realtime ? " (realtime)" : ""));
+
+        Metrics.global().gauge("voxel_world_blocks", "Blocks in the world", world::getBlockCount);
+        MetricsExporter exporter = metricsPath != null ? new MetricsExporter(Metrics.global(), metricsPath) : null;
+
+        long[] tickNanos = run(simulation, DEFAULT_SCRIPT, ticks, realtime);
+        report(simulation, tickNanos);
+        if (exporter != null) {
+            exporter.close();
+            System.out.println("Metrics written to " + metricsPath.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Runs the given number of ticks and returns the time each one took, in nanoseconds.
+     */
+    public static long[] run(Simulation simulation, InputScript script, int ticks, boolean realtime) {
+        FixedTimestep clock = new FixedTimestep(TICK_RATE, MAX_TICKS_PER_FRAME);
+        clock.setFrameCap(TICK_RATE);
+        PlayerInput input = new PlayerInput();
+        long[] tickNanos = new long[ticks];
+        long origin = System.nanoTime();
+
+        int done = 0;
+        while (done < ticks) {
+            int due = 1;
+            if (realtime) {
+                double now = (System.nanoTime() - origin) * 1e-9;
+                double wait = clock.timeUntilNextFrame(now);
+                if (wait > 0) {
+                    LockSupport.parkNanos((long) (wait * 1e9));
+                    continue;
+                }
+                due = clock.beginFrame(now);
+            }
+
+            for (int i = 0; i < due && done < ticks; i++) {
+                long start = System.nanoTime();
+                script.apply(simulation.getTickCount(), input, simulation.getWorld());
+                simulation.tick(input, clock.getTickSeconds());
+                tickNanos[done++] = System.nanoTime() - start;
+            }
+        }
+        return tickNanos;
+    }
+
+    private static void report(Simulation simulation, long[] tickNanos) {
+        if (tickNanos.length == 0) return;
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long nanos : sorted) {
+            total += nanos;
+        }
+
+        Vector3f position = simulation.getPlayer().getPosition();
+        System.out.printf("Ticks: %d, total %.2f ms, %.0f ticks/s%n",
+            sorted.length, total / 1e6, sorted.length / (total / 1e9));
+        System.out.printf("Tick time (us): mean %.2f, p50 %.2f, p99 %.2f, max %.2f%n",
+            total / 1e3 / sorted.length, percentile(sorted, 0.50) / 1e3,
+            percentile(sorted, 0.99) / 1e3, sorted[sorted.length - 1] / 1e3);
+        System.out.printf("Player at (%.2f, %.2f, %.2f)%n", position.x, position.y, position.z);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -3,18 +3,34 @@ package org.lab;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
+import org.lab.engine.FixedTimestep;
+import org.lab.engine.FrameProfiler;
 import org.lab.engine.Player;
+import org.lab.engine.PlayerInput;
+import org.lab.engine.Simulation;
 import org.lab.engine.Shader;
+import org.lab.metrics.Counter;
+import org.lab.metrics.Histogram;
+import org.lab.metrics.Metrics;
+import org.lab.metrics.MetricsExporter;
 import org.lab.render.BlockRenderer;
+import org.lab.render.ChunkMesher;
+import org.lab.render.ChunkRenderer;
 import org.lab.render.CubeMesh;
+import org.lab.render.GpuProfiler;
+import org.lab.render.OcclusionCuller;
 import org.lab.render.TextureArray;
 import org.lab.util.Raycaster;
 import org.lab.util.RaycastResult;
 import org.lab.world.Block;
+import org.lab.world.TestScene;
 import org.lab.world.World;
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.opengl.GL;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 import static org.lwjgl.glfw.Callbacks.glfwFreeCallbacks;
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.opengl.GL33C.*;
@@ -32,6 +48,11 @@ public class Main {
     // Demo mode: orbital camera viewer (set to false for normal gameplay)
     private static final boolean DEMO_MODE = true;
 
+    // Chunk meshing: draw face-culled chunk meshes instead of one instanced cube per block
+    private static final boolean CHUNK_MESHING = true;
+    // Chunk mesh mode: GREEDY merges coplanar faces, CULLED emits one quad per exposed face
+    private static final ChunkMesher.Mode MESH_MODE = ChunkMesher.Mode.GREEDY;
+
     // Orbital camera settings (used when DEMO_MODE = true)
     private static final Vector3f ORBIT_CENTER = new Vector3f(0, 3, 0);
     private static final float ORBIT_RADIUS_MIN = 5f;
@@ -44,10 +65,15 @@ public class Main {
     private long window;
     private Shader shader;
     private BlockRenderer blockRenderer;
+    private Shader chunkShader;
+    private ChunkRenderer chunkRenderer;
+    private OcclusionCuller occlusionCuller;
     private TextureArray blockTextures;  // All block textures in one array
 
     private World world;
+    private Simulation simulation;
     private Player player;
+    private final PlayerInput input = new PlayerInput();
     private Matrix4f projection;
     private Matrix4f view;
     private Matrix4f viewProjection;
@@ -64,7 +90,7 @@ public class Main {
     private boolean firstMouse = true;
 
     // Block interaction
-    private RaycastResult targetedBlock = null;
+    private RaycastResult targetedBlock = null;  // targetHit when something is targeted
     private static final float REACH_DISTANCE = 50.0f;  // Longer reach for demo mode
     private int currentBlockType = 0;  // 0=grass, 1=concrete, 2=wood
 
@@ -74,10 +100,48 @@ public class Main {
     // For screen-to-world ray calculation
     private Matrix4f inverseViewProjection = new Matrix4f();
 
-    // FPS tracking and frame limiting
+    // Reused every frame so per-frame raycasting allocates nothing
+    private final RaycastResult targetHit = new RaycastResult();
+    private final Vector3i targetPos = new Vector3i();
+    private final Vector3f rayDir = new Vector3f();
+    private final Vector3f rayNear = new Vector3f();
+    private final Vector3f cameraTarget = new Vector3f();
+    private final double[] cursorX = new double[1];
+    private final double[] cursorY = new double[1];
+    private final int[] windowWidth = new int[1];
+    private final int[] windowHeight = new int[1];
+
+    // Fixed simulation rate and frame cap (0 = uncapped)
+    private static final int TICK_RATE = 60;
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    private static final int FRAME_CAP = 30;
+    private final FixedTimestep clock = new FixedTimestep(TICK_RATE, MAX_TICKS_PER_FRAME);
+
+    // Frame profiler: CPU time per stage, GPU time for the stages that issue draw/upload work
+    private static final Path PROFILE_TRACE = Path.of("profile-trace.json");
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final int stageInput = profiler.stage("input");
+    private final int stagePhysics = profiler.stage("physics");
+    private final int stageRaycast = profiler.stage("raycast");
+    private final int stageBatch = profiler.stage("batch");
+    private final int stageUpload = profiler.stage("upload");
+    private final int stageDraw = profiler.stage("draw");
+    private final int stageSwap = profiler.stage("swap");
+    private GpuProfiler gpuProfiler;
+    private boolean dumpProfile = false;
+
+    // Engine metrics; set -Dvoxel.metrics=<file> (.prom or .json) to export them periodically
+    private final Counter uploadBytes =
+        Metrics.global().counter("voxel_upload_bytes_total", "Instance and mesh bytes uploaded to the GPU");
+    private final Histogram frameUploadBytes =
+        Metrics.global().histogram("voxel_frame_upload_bytes", "Bytes uploaded to the GPU per frame");
+    private long uploadBytesBefore;
+    private MetricsExporter metricsExporter;
+
+    // FPS tracking
     private int frameCount = 0;
+    private int chunksRemeshedThisSecond = 0;
     private float fpsTimer = 0;
-    private static final float TARGET_FRAME_TIME = 1.0f / 30.0f;  // 30 FPS
 
     public static void main(String[] args) {
         new Main().run();
@@ -119,6 +183,9 @@ public class Main {
             if (key == GLFW_KEY_ESCAPE && action == GLFW_PRESS) {
                 glfwSetWindowShouldClose(win, true);
             }
+            if (key == GLFW_KEY_F3 && action == GLFW_PRESS) {
+                dumpProfile = true;
+            }
 
             // Block type selection (1=grass, 2=concrete, 3=wood)
             if (DEMO_MODE && action == GLFW_PRESS) {
@@ -194,13 +261,8 @@ public class Main {
             if (action != GLFW_PRESS) return;
 
             if (DEMO_MODE) {
-                // Get mouse position and convert to world ray
-                double[] mouseX = new double[1];
-                double[] mouseY = new double[1];
-                glfwGetCursorPos(win, mouseX, mouseY);
-
-                Vector3f rayDir = screenToWorldRay((float) mouseX[0], (float) mouseY[0]);
-                RaycastResult hit = Raycaster.cast(world, cameraPos, rayDir, REACH_DISTANCE);
+                // Convert mouse position to a world ray
+                RaycastResult hit = Raycaster.cast(world, cameraPos, cursorRay(), REACH_DISTANCE);
 
                 if (button == GLFW_MOUSE_BUTTON_LEFT && hit != null) {
                     // Place block on the face we hit
@@ -255,7 +317,12 @@ public class Main {
         // Initialize rendering components
         CubeMesh.initialize();
         shader = new Shader("shaders/block.vert", "shaders/block.frag");
-        blockRenderer = new BlockRenderer(10000); // Support up to 10k blocks
+        blockRenderer = new BlockRenderer(); // grows with the world
+        chunkShader = new Shader("shaders/chunk.vert", "shaders/block.frag");
+        chunkRenderer = new ChunkRenderer(MESH_MODE);
+        occlusionCuller = new OcclusionCuller();
+        chunkRenderer.setOcclusionCuller(occlusionCuller);
+        gpuProfiler = new GpuProfiler(profiler);
 
         // Load all block textures into a texture array
         // Order matters: index 0 = grass, 1 = concrete, 2 = wood plank
@@ -268,9 +335,24 @@ public class Main {
         // Create world and add blocks
         world = new World();
         createTestBlocks();
+        if (CHUNK_MESHING) {
+            world.addListener(chunkRenderer);  // remesh only chunks touched by edits
+            world.addListener(occlusionCuller);
+        } else {
+            blockRenderer.retain(world);
+            world.addListener(blockRenderer);  // rewrite only instance slots touched by edits
+        }
+
+        Metrics.global().gauge("voxel_world_blocks", "Blocks in the world", world::getBlockCount);
+        String metricsPath = System.getProperty("voxel.metrics");
+        if (metricsPath != null) {
+            metricsExporter = new MetricsExporter(Metrics.global(), Path.of(metricsPath));
+            System.out.println("Writing metrics to " + metricsExporter.getPath().toAbsolutePath());
+        }
 
         // Create player spawning on top of the grass floor
-        player = new Player(0, 1, 0);
+        simulation = new Simulation(world, 0, 1, 0);
+        player = simulation.getPlayer();
         cameraPos = player.getEyePosition();
 
         // Set up projection matrix (perspective)
@@ -295,7 +377,17 @@ public class Main {
         } else {
             System.out.println("Controls: WASD to move, Space to jump, Mouse to look, ESC to exit");
         }
-        System.out.println("Rendering " + world.getBlocks().size() + " blocks with instancing");
+        System.out.println("          F3 to print stage timings and write " + PROFILE_TRACE);
+        if (CHUNK_MESHING) {
+            chunkRenderer.update(world);
+            chunkRenderer.finishPending();
+            System.out.println("Rendering " + world.getBlockCount() + " blocks as "
+                + chunkRenderer.getChunkCount() + " chunk meshes, "
+                + chunkRenderer.getTriangleCount() + " triangles (instanced: "
+                + world.getBlockCount() * 12 + ")");
+        } else {
+            System.out.println("Rendering " + world.getBlockCount() + " blocks with instancing");
+        }
     }
 
     /**
@@ -304,148 +396,54 @@ public class Main {
      */
     private void createTestBlocks() {
         if (DEMO_MODE) {
-            createHillScene();
+            TestScene.buildHill(world);
         } else {
-            // Simple test blocks for gameplay mode
-            for (int x = -5; x < 5; x++) {
-                for (int z = -5; z < 5; z++) {
-                    world.addBlock(new Block(x, 0, z, 0));
-                }
-            }
-            // Tower for testing
-            for (int y = 1; y <= 5; y++) {
-                world.addBlock(new Block(3, y, 3, 0));
-            }
+            TestScene.buildFlat(world);
         }
     }
 
-    /**
-     * Creates a static scene for the orbital camera demo.
-     * Features a flat grass terrain with a gentle hill, a house, and a walkway.
-     *
-     * Block types: 0=grass, 1=concrete, 2=wood plank
-     */
-    private void createHillScene() {
-        int halfSize = 12; // Creates 25x25 area
-
-        // Create base grass terrain with a gentle hill in one corner
-        for (int x = -halfSize; x <= halfSize; x++) {
-            for (int z = -halfSize; z <= halfSize; z++) {
-                // Small hill offset to corner (around x=6, z=6)
-                float hillCenterX = 6;
-                float hillCenterZ = 6;
-                float dx = x - hillCenterX;
-                float dz = z - hillCenterZ;
-                float dist = (float) Math.sqrt(dx * dx + dz * dz);
-
-                // Gentle hill: max height 3, radius 5
-                int height = 0;
-                if (dist < 5) {
-                    float falloff = (float) Math.cos((dist / 5) * Math.PI / 2);
-                    height = (int) (3 * falloff);
-                }
-
-                // Add grass blocks from y=0 up to height
-                // Skip the very tip of the hill (center point at max height)
-                int maxY = (dist < 1 && height == 3) ? height - 1 : height;
-                for (int y = 0; y <= maxY; y++) {
-                    world.addBlock(new Block(x, y, z, 0)); // grass
-                }
-            }
-        }
-
-        // Build a house at (-5, 1, -5) - 5x4x5 structure
-        buildHouse(-5, 1, -5);
-
-        // Build a walkway from house to hill
-        buildWalkway();
-    }
-
-    /**
-     * Builds a simple house with concrete walls and wood plank roof.
-     * House is 5 wide (x), 4 tall (y), 5 deep (z).
-     */
-    private void buildHouse(int startX, int startY, int startZ) {
-        int width = 5;
-        int height = 4;
-        int depth = 5;
-
-        // Walls (concrete = 1)
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                for (int z = 0; z < depth; z++) {
-                    // Only build walls (edges) and floor, leave interior hollow
-                    boolean isWall = (x == 0 || x == width - 1 || z == 0 || z == depth - 1);
-                    boolean isFloor = (y == 0);
-
-                    if (isFloor) {
-                        // Wood plank floor
-                        world.addBlock(new Block(startX + x, startY + y, startZ + z, 2));
-                    } else if (isWall) {
-                        // Leave a door opening on front wall (z == 0, middle x)
-                        boolean isDoor = (z == 0 && x == width / 2 && y < 2);
-                        // Leave window openings on side walls
-                        boolean isWindow = ((x == 0 || x == width - 1) && z == depth / 2 && y == 2);
-
-                        if (!isDoor && !isWindow) {
-                            world.addBlock(new Block(startX + x, startY + y, startZ + z, 1)); // concrete
-                        }
-                    }
-                }
-            }
-        }
+    private void loop() {
+        clock.setFrameCap(FRAME_CAP);
 
-        // Flat roof (wood plank = 2)
-        for (int x = 0; x < width; x++) {
-            for (int z = 0; z < depth; z++) {
-                world.addBlock(new Block(startX + x, startY + height, startZ + z, 2));
+        while (!glfwWindowShouldClose(window)) {
+            // Sleep until the next frame is due; input events end the wait early
+            double wait = clock.timeUntilNextFrame(glfwGetTime());
+            if (wait > 0) {
+                glfwWaitEventsTimeout(wait);
+                continue;
             }
-        }
-    }
 
-    /**
-     * Builds a concrete walkway from the house entrance toward the hill.
-     */
-    private void buildWalkway() {
-        // Walkway from house door at (-3, 1, -5) going toward positive Z and X
-        // Start at z=-4 (just outside door) and curve toward the hill
-
-        // Straight section from house
-        for (int z = -4; z <= 2; z++) {
-            world.addBlock(new Block(-3, 1, z, 1)); // concrete
-            world.addBlock(new Block(-2, 1, z, 1)); // 2-wide path
-        }
+            profiler.beginFrame();
+            gpuProfiler.collect();
 
-        // Curve toward the hill (diagonal section)
-        for (int i = 0; i < 4; i++) {
-            world.addBlock(new Block(-2 + i, 1, 2 + i, 1));
-            world.addBlock(new Block(-1 + i, 1, 2 + i, 1));
-        }
-    }
-
-    private void loop() {
-        float lastTime = (float) glfwGetTime();
-
-        while (!glfwWindowShouldClose(window)) {
             // Poll events first to ensure fresh input for raycast
+            profiler.begin(stageInput);
             glfwPollEvents();
+            profiler.end(stageInput);
 
-            float currentTime = (float) glfwGetTime();
-            float deltaTime = currentTime - lastTime;
-
-            // 30 FPS limit - skip frame if too fast
-            if (deltaTime < TARGET_FRAME_TIME) {
-                continue;
-            }
-            lastTime = currentTime;
+            int ticks = clock.beginFrame(glfwGetTime());
+            float deltaTime = clock.getFrameDelta();
 
             // FPS counter
             frameCount++;
             fpsTimer += deltaTime;
             if (fpsTimer >= 1.0f) {
-                glfwSetWindowTitle(window, TITLE + " - FPS: " + frameCount);
+                String title = TITLE + " - FPS: " + frameCount;
+                if (CHUNK_MESHING) {
+                    title += " - Chunks remeshed/s: " + chunksRemeshedThisSecond;
+                    title += " - Chunks drawn: " + chunkRenderer.getVisibleChunkCount()
+                        + " (culled " + chunkRenderer.getCulledChunkCount()
+                        + ", occluded " + chunkRenderer.getOccludedChunkCount()
+                        + ", walled off " + chunkRenderer.getCaveCulledChunkCount() + ")";
+                }
+                FrameProfiler.Summary frameTimes = profiler.summarize("frame", false);
+                if (frameTimes != null) {
+                    title += String.format(" - Frame p99: %.1f ms", frameTimes.p99() / 1e6);
+                }
+                glfwSetWindowTitle(window, title);
                 frameCount = 0;
                 fpsTimer = 0;
+                chunksRemeshedThisSecond = 0;
             }
 
             if (DEMO_MODE) {
@@ -472,36 +470,32 @@ public class Main {
 
                 // Perform raycast for block highlighting when in edit mode
                 if (editMode) {
-                    double[] mouseX = new double[1];
-                    double[] mouseY = new double[1];
-                    glfwGetCursorPos(window, mouseX, mouseY);
-                    Vector3f rayDir = screenToWorldRay((float) mouseX[0], (float) mouseY[0]);
-                    targetedBlock = Raycaster.cast(world, cameraPos, rayDir, REACH_DISTANCE);
+                    profiler.begin(stageRaycast);
+                    boolean hit = Raycaster.cast(world, cameraPos, cursorRay(), REACH_DISTANCE, targetHit);
+                    targetedBlock = hit ? targetHit : null;
+                    profiler.end(stageRaycast);
                 } else {
                     targetedBlock = null;
                 }
             } else {
-                // Normal gameplay mode
-                // Process input
-                processInput(deltaTime);
-
-                // Update player physics
-                player.update(deltaTime, world);
-
-                // Reset player if fallen 20 blocks
-                if (player.getPosition().y < -20) {
-                    player.reset(0, 1, 0);
+                // Normal gameplay mode: simulate in fixed ticks
+                profiler.begin(stagePhysics);
+                for (int i = 0; i < ticks; i++) {
+                    tick(clock.getTickSeconds());
                 }
+                profiler.end(stagePhysics);
 
-                // Update camera position from player eye position
-                cameraPos = player.getEyePosition();
+                // Camera follows the player, interpolated between the last two ticks
+                player.getInterpolatedEyePosition(clock.getAlpha(), cameraPos);
 
                 // Perform raycast to find targeted block
-                targetedBlock = Raycaster.cast(world, cameraPos, cameraFront, REACH_DISTANCE);
+                profiler.begin(stageRaycast);
+                boolean hit = Raycaster.cast(world, cameraPos, cameraFront, REACH_DISTANCE, targetHit);
+                targetedBlock = hit ? targetHit : null;
+                profiler.end(stageRaycast);
 
                 // Update view matrix
-                Vector3f target = new Vector3f(cameraPos).add(cameraFront);
-                view.identity().lookAt(cameraPos, target, cameraUp);
+                view.identity().lookAt(cameraPos, cameraPos.add(cameraFront, cameraTarget), cameraUp);
             }
 
             // Combine view and projection
@@ -510,26 +504,115 @@ public class Main {
             // Compute inverse for screen-to-world ray conversion
             viewProjection.invert(inverseViewProjection);
 
+            // Remesh edited chunks / rewrite edited instance slots and upload them
+            profiler.begin(stageUpload);
+            gpuProfiler.begin(stageUpload);
+            if (CHUNK_MESHING) {
+                chunkRenderer.update(world);
+                chunksRemeshedThisSecond += chunkRenderer.getChunksRemeshedLastFrame();
+            } else {
+                blockRenderer.uploadRetained();
+            }
+            gpuProfiler.end(stageUpload);
+            profiler.end(stageUpload);
+
+            profiler.begin(stageDraw);
+            gpuProfiler.begin(stageDraw);
+
             // Clear screen
             glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
 
-            // Render blocks
-            shader.use();
-
-            // Bind texture array and set sampler uniform
+            // Bind texture array (shared by both block shaders)
             blockTextures.bind(0);
-            shader.setInt("uTextureArray", 0);
+            Vector3i highlightPos = targetedBlock != null ? targetedBlock.getBlockPos(targetPos) : null;
+
+            if (CHUNK_MESHING) {
+                // Draw the world
+                occlusionCuller.update(world, viewProjection);  // results apply from the next frame
+                chunkShader.use();
+                chunkShader.setInt("uTextureArray", 0);
+                chunkRenderer.render(chunkShader, viewProjection, cameraPos);
 
-            // Batch and render all blocks with optional highlight
-            Vector3i highlightPos = targetedBlock != null ? targetedBlock.getBlockPos() : null;
-            blockRenderer.render(world.getBlocks(), shader, viewProjection, highlightPos);
+                if (highlightPos != null) {
+                    renderHighlight(highlightPos);
+                }
+            } else {
+                // Render blocks
+                shader.use();
+                shader.setInt("uTextureArray", 0);
+
+                // Render all blocks (changed slots were uploaded above)
+                blockRenderer.setHighlight(highlightPos);
+                blockRenderer.render(shader, viewProjection);
+            }
+            gpuProfiler.end(stageDraw);
+            profiler.end(stageDraw);
 
             // Swap buffers
+            profiler.begin(stageSwap);
             glfwSwapBuffers(window);
+            profiler.end(stageSwap);
+
+            profiler.endFrame();
+            long uploadBytesNow = uploadBytes.get();
+            frameUploadBytes.record(uploadBytesNow - uploadBytesBefore);
+            uploadBytesBefore = uploadBytesNow;
+
+            if (dumpProfile) {
+                dumpProfile = false;
+                dumpProfile();
+            }
+        }
+    }
+
+    /**
+     * Prints timing percentiles per stage and writes the recorded spans as a Chrome trace.
+     */
+    private void dumpProfile() {
+        profiler.summarize().forEach(System.out::println);
+        try {
+            profiler.writeChromeTrace(PROFILE_TRACE);
+            System.out.println("Profile trace written to " + PROFILE_TRACE.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Failed to write profile trace: " + e.getMessage());
         }
     }
 
-    private void processInput(float deltaTime) {
+    /**
+     * Draws the targeted block again as a highlighted instance on top of the chunk meshes.
+     * Polygon offset pulls it slightly toward the camera so it wins the depth test.
+     */
+    private void renderHighlight(Vector3i pos) {
+        int textureIndex = world.getBlockType(pos.x, pos.y, pos.z);
+        if (textureIndex < 0) return;
+
+        shader.use();
+        shader.setInt("uTextureArray", 0);
+
+        glEnable(GL_POLYGON_OFFSET_FILL);
+        glPolygonOffset(-1.0f, -1.0f);
+        blockRenderer.setHighlight(pos);
+        profiler.begin(stageBatch);
+        blockRenderer.begin();
+        blockRenderer.addBlock(pos.x, pos.y, pos.z, textureIndex);
+        blockRenderer.end();
+        profiler.end(stageBatch);
+        blockRenderer.render(shader, viewProjection);
+        glDisable(GL_POLYGON_OFFSET_FILL);
+    }
+
+    /**
+     * Advances the simulation by one fixed tick.
+     */
+    private void tick(float tickSeconds) {
+        processInput();
+        simulation.tick(input, tickSeconds);
+    }
+
+    /**
+     * Reads the movement keys into this tick's player input.
+     */
+    private void processInput() {
         // Calculate movement input
         float forward = 0;
         float strafe = 0;
@@ -547,13 +630,10 @@ public class Main {
             strafe += 1;
         }
 
-        // Apply horizontal movement
-        player.move(forward, strafe, cameraYaw, deltaTime);
-
-        // Jump
-        if (glfwGetKey(window, GLFW_KEY_SPACE) == GLFW_PRESS) {
-            player.jump();
-        }
+        input.forward = forward;
+        input.strafe = strafe;
+        input.yaw = cameraYaw;
+        input.jump = glfwGetKey(window, GLFW_KEY_SPACE) == GLFW_PRESS;
     }
 
     /**
@@ -584,38 +664,41 @@ public class Main {
         targetedBlock = null;
     }
 
+    /**
+     * Returns the world-space ray direction under the mouse cursor.
+     * The returned vector is reused by the next call.
+     */
+    private Vector3f cursorRay() {
+        glfwGetCursorPos(window, cursorX, cursorY);
+        return screenToWorldRay((float) cursorX[0], (float) cursorY[0], rayDir);
+    }
+
     /**
      * Converts screen coordinates to a world-space ray direction.
      * Uses the inverse view-projection matrix to unproject screen points.
      *
      * @param screenX mouse X position (0 = left edge)
      * @param screenY mouse Y position (0 = top edge)
-     * @return normalized ray direction in world space
+     * @param dest    receives the normalized ray direction in world space
+     * @return dest
      */
-    private Vector3f screenToWorldRay(float screenX, float screenY) {
+    private Vector3f screenToWorldRay(float screenX, float screenY, Vector3f dest) {
         // Get actual window size (cursor coords use window size, not framebuffer size)
-        int[] winWidth = new int[1];
-        int[] winHeight = new int[1];
-        glfwGetWindowSize(window, winWidth, winHeight);
+        glfwGetWindowSize(window, windowWidth, windowHeight);
 
         // Apply cursor offset correction (compensates for system cursor hotspot)
         screenY -= 20.0f;
 
         // Convert screen coords to normalized device coordinates (-1 to 1)
-        float ndcX = (2.0f * screenX) / winWidth[0] - 1.0f;
-        float ndcY = 1.0f - (2.0f * screenY) / winHeight[0];  // Flip Y (screen Y is top-down)
+        float ndcX = (2.0f * screenX) / windowWidth[0] - 1.0f;
+        float ndcY = 1.0f - (2.0f * screenY) / windowHeight[0];  // Flip Y (screen Y is top-down)
 
-        // Create points on near and far planes in clip space
-        Vector3f nearPoint = new Vector3f(ndcX, ndcY, -1.0f);
-        Vector3f farPoint = new Vector3f(ndcX, ndcY, 1.0f);
-
-        // Unproject to world space using inverse view-projection
-        Vector3f nearWorld = inverseViewProjection.transformProject(nearPoint);
-        Vector3f farWorld = inverseViewProjection.transformProject(farPoint);
+        // Unproject points on the near and far planes to world space using inverse view-projection
+        Vector3f nearWorld = inverseViewProjection.transformProject(ndcX, ndcY, -1.0f, rayNear);
+        Vector3f farWorld = inverseViewProjection.transformProject(ndcX, ndcY, 1.0f, dest);
 
         // Calculate and normalize ray direction
-        Vector3f rayDir = new Vector3f(farWorld).sub(nearWorld).normalize();
-        return rayDir;
+        return farWorld.sub(nearWorld).normalize();
     }
 
     /**
@@ -634,10 +717,17 @@ public class Main {
 
     private void cleanup() {
         System.out.println("Cleaning up...");
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
 
         // Clean up rendering resources
         blockRenderer.close();
+        chunkRenderer.close();
+        occlusionCuller.close();
+        gpuProfiler.close();
         shader.close();
+        chunkShader.close();
         CubeMesh.cleanup();
         blockTextures.close();
 
@@ -0,0 +1,287 @@
+package org.lab;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lab.engine.Shader;
+import org.lab.render.BlockRenderer;
+import org.lab.render.ChunkMesher;
+import org.lab.render.ChunkRenderer;
+import org.lab.render.CubeMesh;
+import org.lab.render.GpuTimer;
+import org.lab.render.ImageDiff;
+import org.lab.render.OffscreenContext;
+import org.lab.render.TextureArray;
+import org.lab.world.TestScene;
+import org.lab.world.World;
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.lwjgl.opengl.GL33C.*;
+import static org.lwjgl.stb.STBImage.*;
+import static org.lwjgl.stb.STBImageWrite.stbi_write_png;
+
+/**
+ * Offscreen rendering regression harness, for CI machines without a GPU.
+ *
+ * Renders the demo hill scene from fixed camera poses with both the instanced
+ * BlockRenderer and the chunk mesh renderer into an OffscreenContext, then:
+ * - compares each frame with a baseline PNG (ImageDiff), and
+ * - times it over several frames with GPU timer queries and compares the
+ *   median with the baseline frame time.
+ * Exits with status 1 if any image or timing check fails.
+ *
+ * Usage: RenderHarness [--backend osmesa|egl|native] [--baseline dir] [--update] [--frames n]
+ *   --update  writes the current images and timings as the new baselines
+ *
+ * Baselines are recorded once on the reference renderer (Mesa llvmpipe) with
+ *   GALLIUM_DRIVER=llvmpipe ./mvnw compile exec:java@render-harness -Dexec.args=--update
+ * and committed under render-baselines/. The renderer string is stored with the
+ * timings; frame times measured on a different renderer are not compared.
+ *
+ * Actual images are written to target/render-harness for inspection.
+ * On Mesa, LIBGL_ALWAYS_SOFTWARE=1 / GALLIUM_DRIVER=llvmpipe select the software rasterizer.
+ */
+public class RenderHarness {
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 360;
+
+    // Image checks: per-channel tolerance and share of pixels allowed to differ
+    private static final int CHANNEL_TOLERANCE = 8;
+    private static final float MAX_DIFFERENT_RATIO = 0.002f;
+
+    // Timing check: median GPU time may exceed the baseline by this fraction
+    private static final float FRAME_TIME_TOLERANCE = 0.5f;
+
+    private static final Path OUTPUT_DIR = Path.of("target", "render-harness");
+    private static final String TIMINGS_FILE = "timings.properties";
+    private static final String RENDERER_KEY = "renderer";
+
+    /**
+     * Fixed camera for one reference image.
+     */
+    private record Pose(String name, Vector3f eye, Vector3f target) {
+    }
+
+    private static final List<Pose> POSES = List.of(
+        new Pose("overview", new Vector3f(20, 15, 20), new Vector3f(0, 3, 0)),
+        new Pose("house", new Vector3f(-3, 4, 6), new Vector3f(-3, 2, -5)),
+        new Pose("hill", new Vector3f(14, 6, 14), new Vector3f(6, 2, 6)),
+        new Pose("ground", new Vector3f(0, 2, 8), new Vector3f(0, 2, 0))
+    );
+
+    private interface SceneRenderer {
+        void render(Matrix4f viewProjection, Vector3f eye);
+    }
+
+    private final OffscreenContext context;
+    private final Path baselineDir;
+    private final boolean update;
+    private final int frames;
+    private final Properties timings = new Properties();
+    private final List<String> failures = new ArrayList<>();
+    private boolean compareTimings;
+
+    private RenderHarness(OffscreenContext context, Path baselineDir, boolean update, int frames) {
+        this.context = context;
+        this.baselineDir = baselineDir;
+        this.update = update;
+        this.frames = frames;
+    }
+
+    public static void main(String[] args) throws IOException {
+        OffscreenContext.Backend backend = OffscreenContext.Backend.OSMESA;
+        Path baselineDir = Path.of("render-baselines");
+        boolean update = false;
+        int frames = 30;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--backend" -> backend = OffscreenContext.Backend.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--baseline" -> baselineDir = Path.of(args[++i]);
+                case "--update" -> update = true;
+                case "--frames" -> frames = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        boolean passed;
+        try (OffscreenContext context = new OffscreenContext(WIDTH, HEIGHT, backend)) {
+            System.out.println("Renderer: " + context.getRenderer());
+            passed = new RenderHarness(context, baselineDir, update, frames).run();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run() throws IOException {
+        Files.createDirectories(OUTPUT_DIR);
+        Path timingsPath = baselineDir.resolve(TIMINGS_FILE);
+        String renderer = context.getRenderer();
+        if (update) {
+            timings.setProperty(RENDERER_KEY, renderer);
+        } else {
+            if (!Files.exists(timingsPath)) {
+                System.out.println("FAIL no baselines in " + baselineDir
+                    + "; record them on the reference renderer with --update");
+                return false;
+            }
+            try (InputStream in = Files.newInputStream(timingsPath)) {
+                timings.load(in);
+            }
+            compareTimings = renderer.equals(timings.getProperty(RENDERER_KEY));
+            if (!compareTimings) {
+                System.out.println("Baselines were recorded on " + timings.getProperty(RENDERER_KEY)
+                    + ", skipping frame time checks");
+            }
+        }
+
+        glEnable(GL_DEPTH_TEST);
+        glEnable(GL_CULL_FACE);
+        glCullFace(GL_BACK);
+        glClearColor(0.4f, 0.6f, 0.9f, 1.0f);
+
+        CubeMesh.initialize();
+        World world = new World();
+        TestScene.buildHill(world);
+        Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(70.0),
+            (float) WIDTH / HEIGHT, 0.1f, 1000.0f);
+
+        try (Shader blockShader = new Shader("shaders/block.vert", "shaders/block.frag");
+             Shader chunkShader = new Shader("shaders/chunk.vert", "shaders/block.frag");
+             TextureArray textures = new TextureArray(
+                 "textures/grass.jpg", "textures/concrete.jpg", "textures/wood_plank.jpg");
+             BlockRenderer blockRenderer = new BlockRenderer();
+             ChunkRenderer chunkRenderer = new ChunkRenderer(ChunkMesher.Mode.GREEDY);
+             GpuTimer timer = new GpuTimer()) {
+
+            textures.bind(0);
+            chunkRenderer.update(world);
+            chunkRenderer.finishPending();
+
+            SceneRenderer blocks = (viewProjection, eye) -> {
+                blockShader.use();
+                blockShader.setInt("uTextureArray", 0);
+                blockRenderer.render(world, blockShader, viewProjection, null);
+            };
+            SceneRenderer chunks = (viewProjection, eye) -> {
+                chunkShader.use();
+                chunkShader.setInt("uTextureArray", 0);
+                chunkRenderer.render(chunkShader, viewProjection, eye);
+            };
+
+            Matrix4f view = new Matrix4f();
+            Matrix4f viewProjection = new Matrix4f();
+            for (Pose pose : POSES) {
+                view.setLookAt(pose.eye(), pose.target(), new Vector3f(0, 1, 0));
+                projection.mul(view, viewProjection);
+                check("blocks-" + pose.name(), blocks, viewProjection, pose.eye(), timer);
+                check("chunks-" + pose.name(), chunks, viewProjection, pose.eye(), timer);
+            }
+        } finally {
+            CubeMesh.cleanup();
+        }
+
+        if (update) {
+            Files.createDirectories(baselineDir);
+            try (OutputStream out = Files.newOutputStream(timingsPath)) {
+                timings.store(out, "Renderer and median GPU frame time in nanoseconds per harness image");
+            }
+            System.out.println("Baselines written to " + baselineDir);
+            return true;
+        }
+        failures.forEach(failure -> System.out.println("FAIL " + failure));
+        System.out.println(failures.isEmpty() ? "All checks passed" : failures.size() + " check(s) failed");
+        return failures.isEmpty();
+    }
+
+    /**
+     * Renders one image, compares it with its baseline, then times it.
+     */
+    private void check(String name, SceneRenderer scene, Matrix4f viewProjection, Vector3f eye, GpuTimer timer)
+            throws IOException {
+        context.bind();
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+        scene.render(viewProjection, eye);
+        ByteBuffer pixels = context.readPixels();
+        writePng(OUTPUT_DIR.resolve(name + ".png"), pixels);
+
+        Path baselineImage = baselineDir.resolve(name + ".png");
+        if (update) {
+            Files.createDirectories(baselineDir);
+            writePng(baselineImage, pixels);
+        } else if (!Files.exists(baselineImage)) {
+            failures.add(name + ": no baseline image at " + baselineImage);
+        } else {
+            ImageDiff.Result diff = compareWithPng(baselineImage, pixels);
+            if (diff == null) {
+                failures.add(name + ": baseline image is not " + WIDTH + "x" + HEIGHT);
+            } else if (!diff.matches(MAX_DIFFERENT_RATIO)) {
+                failures.add(name + ": " + diff);
+            } else {
+                System.out.println(name + ": " + diff);
+            }
+        }
+
+        long[] gpuNanos = new long[frames];
+        for (int i = 0; i < frames; i++) {
+            glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+            timer.begin();
+            scene.render(viewProjection, eye);
+            timer.end();
+            gpuNanos[i] = timer.waitForResult();
+        }
+        Arrays.sort(gpuNanos);
+        long median = gpuNanos[frames / 2];
+        System.out.printf("%s: GPU median %.3f ms, max %.3f ms%n", name, median / 1e6, gpuNanos[frames - 1] / 1e6);
+
+        if (update) {
+            timings.setProperty(name, Long.toString(median));
+        } else if (compareTimings) {
+            String baseline = timings.getProperty(name);
+            if (baseline != null && median > Long.parseLong(baseline) * (1.0f + FRAME_TIME_TOLERANCE)) {
+                failures.add(String.format("%s: GPU median %.3f ms exceeds baseline %.3f ms",
+                    name, median / 1e6, Long.parseLong(baseline) / 1e6));
+            }
+        }
+    }
+
+    /**
+     * Returns the difference from a baseline PNG, or null if its size does not match.
+     */
+    private ImageDiff.Result compareWithPng(Path path, ByteBuffer pixels) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer width = stack.mallocInt(1);
+            IntBuffer height = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+            stbi_set_flip_vertically_on_load(false);
+            ByteBuffer expected = stbi_load(path.toString(), width, height, channels, 4);
+            if (expected == null) {
+                throw new RuntimeException("Failed to load baseline " + path + ": " + stbi_failure_reason());
+            }
+            try {
+                if (width.get(0) != WIDTH || height.get(0) != HEIGHT) {
+                    return null;
+                }
+                return ImageDiff.compare(expected, pixels, WIDTH, HEIGHT, CHANNEL_TOLERANCE);
+            } finally {
+                stbi_image_free(expected);
+            }
+        }
+    }
+
+    private static void writePng(Path path, ByteBuffer pixels) {
+        if (!stbi_write_png(path.toString(), WIDTH, HEIGHT, 4, pixels, WIDTH * 4)) {
+            throw new RuntimeException("Failed to write " + path);
+        }
+    }
+}
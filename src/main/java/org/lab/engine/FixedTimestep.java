@@ -0,0 +1,125 @@
+package org.lab.engine;
+
+/**
+ * Clock for a game loop with a fixed simulation rate and a capped frame rate.
+ *
+ * Frame time is accumulated and spent in whole simulation ticks of a fixed
+ * length, so physics sees the same step size regardless of the frame rate and
+ * runs deterministically. The leftover fraction of a tick is exposed as an
+ * interpolation factor for rendering between the last two simulation states.
+ *
+ * If a frame falls far behind (a stall, a breakpoint), at most
+ * maxTicksPerFrame ticks are run and the rest of the backlog is dropped
+ * instead of spiraling.
+ *
+ * The clock only does arithmetic on the times it is given, so it does not
+ * depend on GLFW and can be driven from tests or a headless loop.
+ */
+public class FixedTimestep {
+    private final double tickSeconds;
+    private final int maxTicksPerFrame;
+    private double frameSeconds;
+
+    private double accumulator;
+    private double lastFrameTime = Double.NaN;
+    private double nextFrameTime;
+    private float frameDelta;
+    private long tickCount;
+    private long droppedTicks;
+
+    /**
+     * @param tickRate simulation ticks per second
+     * @param maxTicksPerFrame most ticks run for one frame before the backlog is dropped
+     */
+    public FixedTimestep(double tickRate, int maxTicksPerFrame) {
+        if (tickRate <= 0 || maxTicksPerFrame < 1) {
+            throw new IllegalArgumentException("Invalid tick rate " + tickRate + " or tick limit " + maxTicksPerFrame);
+        }
+        this.tickSeconds = 1.0 / tickRate;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Limits frames per second (0 or less for uncapped).
+     */
+    public void setFrameCap(double framesPerSecond) {
+        this.frameSeconds = framesPerSecond > 0 ? 1.0 / framesPerSecond : 0.0;
+    }
+
+    /**
+     * Returns how long the loop should wait before the next frame, in seconds (0 = render now).
+     */
+    public double timeUntilNextFrame(double now) {
+        if (frameSeconds <= 0 || Double.isNaN(lastFrameTime)) {
+            return 0.0;
+        }
+        return Math.max(0.0, nextFrameTime - now);
+    }
+
+    /**
+     * Starts a frame at the given time and returns the number of simulation ticks to run.
+     * The first call only starts the clock and returns 0.
+     */
+    public int beginFrame(double now) {
+        if (Double.isNaN(lastFrameTime)) {
+            lastFrameTime = now;
+            nextFrameTime = now + frameSeconds;
+            frameDelta = 0.0f;
+            return 0;
+        }
+
+        double delta = Math.max(0.0, now - lastFrameTime);
+        lastFrameTime = now;
+        frameDelta = (float) delta;
+
+        // Keep a steady cadence when slightly late, restart it after a long stall
+        nextFrameTime += frameSeconds;
+        if (nextFrameTime <= now) {
+            nextFrameTime = now + frameSeconds;
+        }
+
+        accumulator += delta;
+        int ticks = (int) (accumulator / tickSeconds);
+        if (ticks > maxTicksPerFrame) {
+            droppedTicks += ticks - maxTicksPerFrame;
+            ticks = maxTicksPerFrame;
+            accumulator -= Math.floor(accumulator / tickSeconds) * tickSeconds;
+        } else {
+            accumulator -= ticks * tickSeconds;
+        }
+        tickCount += ticks;
+        return ticks;
+    }
+
+    /**
+     * Returns the fixed length of one simulation tick in seconds.
+     */
+    public float getTickSeconds() {
+        return (float) tickSeconds;
+    }
+
+    /**
+     * Returns how far the current frame is between the last tick and the next one (0 to 1).
+     */
+    public float getAlpha() {
+        return (float) Math.min(1.0, accumulator / tickSeconds);
+    }
+
+    /**
+     * Returns the time since the previous frame in seconds.
+     */
+    public float getFrameDelta() {
+        return frameDelta;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Returns the number of ticks skipped because frames fell too far behind.
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+}
@@ -0,0 +1,301 @@
+package org.lab.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lightweight hierarchical frame profiler.
+ *
+ * The render thread brackets each frame with beginFrame()/endFrame() and each
+ * stage inside it with begin()/end(); stages may nest. Closed spans go into a
+ * fixed-size ring of primitive arrays, so recording allocates nothing. GPU
+ * spans measured elsewhere (see render.GpuProfiler) are added with recordGpu().
+ *
+ * Only the render thread writes. Other threads may call snapshot(),
+ * summarize() or writeChromeTrace() at any time without locking: the writer
+ * publishes each span by bumping an atomic counter after filling its slot,
+ * and readers drop any span the writer may have overwritten while they copied.
+ * Explicit fences keep that check valid on weakly ordered CPUs (arm64): the
+ * writer orders the previous publish before its next slot writes, and the
+ * reader orders its copies before re-reading the counter.
+ */
+public class FrameProfiler {
+    public static final int MAX_STAGES = 64;
+    public static final int MAX_DEPTH = 16;
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+
+    /**
+     * One recorded span. Times are in nanoseconds since the profiler was created.
+     */
+    public record Span(String name, boolean gpu, int depth, long frame, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * Duration statistics of one stage over the spans still in the ring, in nanoseconds.
+     */
+    public record Summary(String name, boolean gpu, int count, long mean, long p50, long p95, long p99, long max) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-8s %s n=%-5d mean %7.3f  p50 %7.3f  p95 %7.3f  p99 %7.3f  max %7.3f ms",
+                name, gpu ? "gpu" : "cpu", count, mean / 1e6, p50 / 1e6, p95 / 1e6, p99 / 1e6, max / 1e6);
+        }
+    }
+
+    private final long origin = System.nanoTime();
+    private final String[] stageNames = new String[MAX_STAGES];
+    private int stageCount;
+    private final int frameStage;
+
+    // Ring of closed spans; slot = index & mask
+    private final int mask;
+    private final int[] stages;
+    private final int[] depths;
+    private final boolean[] gpu;
+    private final long[] frames;
+    private final long[] starts;
+    private final long[] durations;
+    private final AtomicLong published = new AtomicLong();
+
+    // Open CPU spans, innermost last
+    private final int[] openStages = new int[MAX_DEPTH];
+    private final long[] openStarts = new long[MAX_DEPTH];
+    private int depth;
+    private long frame = -1;
+
+    public FrameProfiler() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity spans kept before the oldest are overwritten, rounded up to a power of two
+     */
+    public FrameProfiler(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        stages = new int[size];
+        depths = new int[size];
+        gpu = new boolean[size];
+        frames = new long[size];
+        starts = new long[size];
+        durations = new long[size];
+        frameStage = stage("frame");
+    }
+
+    /**
+     * Returns the id of the named stage, registering it on first use.
+     * Register stages up front on the render thread and keep the ids; this is
+     * not meant for the per-frame path.
+     */
+    public int stage(String name) {
+        for (int i = 0; i < stageCount; i++) {
+            if (stageNames[i].equals(name)) {
+                return i;
+            }
+        }
+        if (name.indexOf('"') >= 0 || name.indexOf('\\') >= 0) {
+            throw new IllegalArgumentException("Stage names cannot contain quotes or backslashes: " + name);
+        }
+        if (stageCount == MAX_STAGES) {
+            throw new IllegalStateException("Too many profiler stages (max " + MAX_STAGES + ")");
+        }
+        stageNames[stageCount] = name;
+        return stageCount++;
+    }
+
+    public String getStageName(int stage) {
+        return stageNames[stage];
+    }
+
+    /**
+     * Starts a new frame; everything until endFrame() is nested under a "frame" span.
+     */
+    public void beginFrame() {
+        if (depth != 0) {
+            throw new IllegalStateException("Profiler frame started with " + depth + " span(s) still open");
+        }
+        frame++;
+        begin(frameStage);
+    }
+
+    public void endFrame() {
+        end(frameStage);
+    }
+
+    public void begin(int stage) {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("Profiler spans nested deeper than " + MAX_DEPTH);
+        }
+        openStages[depth] = stage;
+        openStarts[depth] = System.nanoTime();
+        depth++;
+    }
+
+    /**
+     * Closes the innermost open span, which must belong to the given stage.
+     */
+    public void end(int stage) {
+        long now = System.nanoTime();
+        if (depth == 0 || openStages[depth - 1] != stage) {
+            throw new IllegalStateException("Profiler span '" + stageNames[stage] + "' ended out of order");
+        }
+        depth--;
+        long start = openStarts[depth];
+        record(stage, false, depth, frame, start - origin, now - start);
+    }
+
+    /**
+     * Adds a GPU span measured for an earlier frame.
+     *
+     * @param frame      frame the commands were submitted in
+     * @param startNanos System.nanoTime() when the commands were submitted
+     * @param gpuNanos   GPU time the commands took
+     */
+    public void recordGpu(int stage, long frame, long startNanos, long gpuNanos) {
+        record(stage, true, 0, frame, startNanos - origin, gpuNanos);
+    }
+
+    private void record(int stage, boolean isGpu, int spanDepth, long spanFrame, long start, long duration) {
+        // The lazySet that published the previous span must not be overtaken by
+        // these slot writes, or a reader could count a slot that is being reused
+        VarHandle.storeStoreFence();
+        long index = published.get();
+        int slot = (int) index & mask;
+        stages[slot] = stage;
+        depths[slot] = spanDepth;
+        gpu[slot] = isGpu;
+        frames[slot] = spanFrame;
+        starts[slot] = start;
+        durations[slot] = duration;
+        // Release: readers that see the new count also see the slot contents
+        published.lazySet(index + 1);
+    }
+
+    /**
+     * Returns the index of the current frame (-1 before the first beginFrame()).
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Returns the total number of spans recorded, including ones since overwritten.
+     */
+    public long getRecordedCount() {
+        return published.get();
+    }
+
+    /**
+     * Copies the spans currently in the ring, oldest first. Safe to call from any thread.
+     * Once the ring is full, its oldest slot is skipped since the writer reuses it next.
+     */
+    public List<Span> snapshot() {
+        int capacity = mask + 1;
+        long end = published.get();
+        long first = Math.max(0, end - capacity);
+        int count = (int) (end - first);
+
+        int[] stageCopy = new int[count];
+        int[] depthCopy = new int[count];
+        boolean[] gpuCopy = new boolean[count];
+        long[] frameCopy = new long[count];
+        long[] startCopy = new long[count];
+        long[] durationCopy = new long[count];
+        for (int i = 0; i < count; i++) {
+            int slot = (int) (first + i) & mask;
+            stageCopy[i] = stages[slot];
+            depthCopy[i] = depths[slot];
+            gpuCopy[i] = gpu[slot];
+            frameCopy[i] = frames[slot];
+            startCopy[i] = starts[slot];
+            durationCopy[i] = durations[slot];
+        }
+
+        // Slots the writer reached while we were copying (including the one it
+        // may be filling now) could be torn; skip them. The fence keeps the
+        // copies above from being reordered after the re-read of the counter.
+        VarHandle.loadLoadFence();
+        long valid = Math.max(first, published.get() - capacity + 1);
+        List<Span> spans = new ArrayList<>(count);
+        for (int i = (int) (valid - first); i < count; i++) {
+            spans.add(new Span(stageNames[stageCopy[i]], gpuCopy[i], depthCopy[i], frameCopy[i],
+                startCopy[i], durationCopy[i]));
+        }
+        return spans;
+    }
+
+    /**
+     * Summarizes every stage with spans in the ring, CPU stages first.
+     */
+    public List<Summary> summarize() {
+        List<Span> spans = snapshot();
+        List<Summary> summaries = new ArrayList<>();
+        for (boolean isGpu : new boolean[] {false, true}) {
+            for (int stage = 0; stage < stageCount; stage++) {
+                Summary summary = summarize(spans, stageNames[stage], isGpu);
+                if (summary != null) {
+                    summaries.add(summary);
+                }
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Summarizes one stage, or returns null if it has no spans in the ring.
+     */
+    public Summary summarize(String name, boolean isGpu) {
+        return summarize(snapshot(), name, isGpu);
+    }
+
+    private static Summary summarize(List<Span> spans, String name, boolean isGpu) {
+        long[] values = new long[spans.size()];
+        int count = 0;
+        long total = 0;
+        for (Span span : spans) {
+            if (span.gpu() == isGpu && span.name().equals(name)) {
+                values[count++] = span.durationNanos();
+                total += span.durationNanos();
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        Arrays.sort(values, 0, count);
+        return new Summary(name, isGpu, count, total / count, percentile(values, count, 0.50),
+            percentile(values, count, 0.95), percentile(values, count, 0.99), values[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, int count, double fraction) {
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    /**
+     * Writes the spans in the ring as Chrome trace-event JSON, for chrome://tracing or Perfetto.
+     * CPU spans go on thread 1 (nested by time), GPU spans on thread 2.
+     */
+    public void writeChromeTrace(Path path) throws IOException {
+        List<Span> spans = snapshot();
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"CPU\"}},\n");
+            out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":2,\"args\":{\"name\":\"GPU\"}}");
+            for (Span span : spans) {
+                out.write(String.format(Locale.ROOT,
+                    ",\n{\"name\":\"%s\",\"cat\":\"%s\",\"ph\":\"X\",\"ts\":%.3f,\"dur\":%.3f,\"pid\":1,\"tid\":%d,"
+                        + "\"args\":{\"frame\":%d}}",
+                    span.name(), span.gpu() ? "gpu" : "cpu", span.startNanos() / 1e3, span.durationNanos() / 1e3,
+                    span.gpu() ? 2 : 1, span.frame()));
+            }
+            out.write("\n]}\n");
+        }
+    }
+}
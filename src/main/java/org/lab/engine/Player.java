@@ -1,6 +1,8 @@
 package org.lab.engine;
 
 import org.joml.Vector3f;
+import org.lab.metrics.Histogram;
+import org.lab.metrics.Metrics;
 import org.lab.world.World;
 
 /**
@@ -19,13 +21,19 @@ public class Player {
     private static final float HEIGHT = 0.9f;          // Player height in blocks
     private static final float EYE_HEIGHT = 0.75f;     // Eye height above feet
 
+    private static final Histogram COLLISION_CHECKS =
+        Metrics.global().histogram("voxel_player_collision_checks", "Block lookups per player physics update");
+
     // State
     private final Vector3f position;  // Feet position
+    private final Vector3f previousPosition;  // Feet position before the last update
     private final Vector3f velocity;
     private boolean onGround;
+    private int collisionChecks;  // block lookups in the current update
 
     public Player(float x, float y, float z) {
         this.position = new Vector3f(x, y, z);
+        this.previousPosition = new Vector3f(x, y, z);
         this.velocity = new Vector3f(0, 0, 0);
         this.onGround = false;
     }
@@ -34,6 +42,9 @@ public class Player {
      * Updates player physics: gravity, velocity integration, collision resolution.
      */
     public void update(float deltaTime, World world) {
+        previousPosition.set(position);
+        collisionChecks = 0;
+
         // Apply gravity
         velocity.y += GRAVITY * deltaTime;
         if (velocity.y < TERMINAL_VELOCITY) {
@@ -57,6 +68,7 @@ public class Player {
             velocity.x *= 0.8f;
             velocity.z *= 0.8f;
         }
+        COLLISION_CHECKS.record(collisionChecks);
     }
 
     /**
@@ -87,6 +99,7 @@ public class Player {
         for (int bx = minX; bx <= maxX; bx++) {
             for (int by = minY; by <= maxY; by++) {
                 for (int bz = minZ; bz <= maxZ; bz++) {
+                    collisionChecks++;
                     if (world.hasBlock(bx, by, bz)) {
                         // Block exists, resolve collision
                         resolveCollision(axis, delta, bx, by, bz);
@@ -153,6 +166,15 @@ public class Player {
         return new Vector3f(position.x, position.y + EYE_HEIGHT, position.z);
     }
 
+    /**
+     * Stores the eye position blended between the last two updates in dest and
+     * returns it, for rendering between fixed simulation ticks.
+     * @param alpha 0 for the previous update's position, 1 for the latest
+     */
+    public Vector3f getInterpolatedEyePosition(float alpha, Vector3f dest) {
+        return dest.set(previousPosition).lerp(position, alpha).add(0, EYE_HEIGHT, 0);
+    }
+
     /**
      * Attempts to jump if on ground.
      */
@@ -211,6 +233,7 @@ public class Player {
      */
     public void reset(float x, float y, float z) {
         position.set(x, y, z);
+        previousPosition.set(x, y, z);
         velocity.set(0, 0, 0);
         onGround = false;
     }
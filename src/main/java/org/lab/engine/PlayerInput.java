@@ -0,0 +1,21 @@
+package org.lab.engine;
+
+/**
+ * Player controls for one simulation tick.
+ * Filled from the keyboard by Main, or from a script when running headless.
+ */
+public class PlayerInput {
+    public float forward;   // -1 to 1
+    public float strafe;    // -1 to 1
+    public float yaw;       // look direction in degrees
+    public boolean jump;
+
+    /**
+     * Releases every control; the yaw is kept.
+     */
+    public void clear() {
+        forward = 0;
+        strafe = 0;
+        jump = false;
+    }
+}
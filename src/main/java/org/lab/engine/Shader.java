@@ -140,6 +140,16 @@ public class Shader implements AutoCloseable {
         }
     }
 
+    /**
+     * Sets an ivec3 uniform from individual components.
+     */
+    public void setVector3i(String name, int x, int y, int z) {
+        int location = getUniformLocation(name);
+        if (location != -1) {
+            glUniform3i(location, x, y, z);
+        }
+    }
+
     /**
      * Sets a float uniform.
      */
@@ -0,0 +1,56 @@
+package org.lab.engine;
+
+import org.lab.world.World;
+
+/**
+ * Game state that advances in fixed ticks: the world and the player.
+ *
+ * Has no window, input or GL dependency, so the same code runs behind Main's
+ * render loop and in HeadlessMain.
+ */
+public class Simulation {
+    // Players falling below this height are put back at the spawn point
+    private static final float RESET_HEIGHT = -20.0f;
+
+    private final World world;
+    private final Player player;
+    private final float spawnX, spawnY, spawnZ;
+    private long tickCount;
+
+    public Simulation(World world, float spawnX, float spawnY, float spawnZ) {
+        this.world = world;
+        this.spawnX = spawnX;
+        this.spawnY = spawnY;
+        this.spawnZ = spawnZ;
+        this.player = new Player(spawnX, spawnY, spawnZ);
+    }
+
+    /**
+     * Applies the input and advances player physics by one tick.
+     */
+    public void tick(PlayerInput input, float tickSeconds) {
+        player.move(input.forward, input.strafe, input.yaw, tickSeconds);
+        if (input.jump) {
+            player.jump();
+        }
+
+        player.update(tickSeconds, world);
+
+        if (player.getPosition().y < RESET_HEIGHT) {
+            player.reset(spawnX, spawnY, spawnZ);
+        }
+        tickCount++;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+}
@@ -0,0 +1,29 @@
+package org.lab.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a LongAdder, so threads adding at once update
+ * separate cells instead of contending on one value. Obtain from Metrics.
+ */
+public final class Counter {
+    private final LongAdder adder = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        adder.increment();
+    }
+
+    public void add(long amount) {
+        adder.add(amount);
+    }
+
+    /**
+     * Returns the current total. Not an atomic snapshot while other threads are adding.
+     */
+    public long get() {
+        return adder.sum();
+    }
+}
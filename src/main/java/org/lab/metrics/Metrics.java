@@ -0,0 +1,116 @@
+package org.lab.metrics;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of named engine counters, gauges and histograms.
+ *
+ * Classes look up their instruments once, usually into static fields from
+ * global(), and update them on hot paths without allocating. Asking for an
+ * existing name returns the same instrument, so several classes can feed one
+ * metric. Names follow Prometheus conventions (voxel_..._total for counters).
+ *
+ * writePrometheus() and writeJson() render the current values; MetricsExporter
+ * writes them to a file periodically.
+ */
+public final class Metrics {
+    private static final Metrics GLOBAL = new Metrics();
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private record Entry(String help, Object instrument) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the registry shared by the engine.
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    public Counter counter(String name, String help) {
+        return register(name, help, Counter.class, new Counter());
+    }
+
+    public Histogram histogram(String name, String help) {
+        return register(name, help, Histogram.class, new Histogram());
+    }
+
+    /**
+     * Registers a gauge read from the supplier at export time, replacing any
+     * previous gauge of that name (e.g. when a new world is loaded).
+     */
+    public void gauge(String name, String help, LongSupplier supplier) {
+        Entry existing = entries.get(name);
+        if (existing != null && !(existing.instrument() instanceof LongSupplier)) {
+            throw new IllegalStateException("Metric " + name + " is already registered as another type");
+        }
+        entries.put(name, new Entry(help, supplier));
+    }
+
+    private <T> T register(String name, String help, Class<T> type, T created) {
+        Entry entry = entries.computeIfAbsent(name, key -> new Entry(help, created));
+        if (!type.isInstance(entry.instrument())) {
+            throw new IllegalStateException("Metric " + name + " is already registered as another type");
+        }
+        return type.cast(entry.instrument());
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     * Histograms are written as summaries with 0.5, 0.9 and 0.99 quantiles.
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            String name = e.getKey();
+            Object instrument = e.getValue().instrument();
+            out.append("# HELP ").append(name).append(' ').append(e.getValue().help()).append('\n');
+            switch (instrument) {
+                case Counter counter -> {
+                    out.append("# TYPE ").append(name).append(" counter\n");
+                    out.append(name).append(' ').append(Long.toString(counter.get())).append('\n');
+                }
+                case Histogram histogram -> {
+                    out.append("# TYPE ").append(name).append(" summary\n");
+                    for (double quantile : QUANTILES) {
+                        out.append(name).append("{quantile=\"").append(Double.toString(quantile)).append("\"} ")
+                            .append(Long.toString(histogram.getPercentile(quantile))).append('\n');
+                    }
+                    out.append(name).append("_sum ").append(Long.toString(histogram.getSum())).append('\n');
+                    out.append(name).append("_count ").append(Long.toString(histogram.getCount())).append('\n');
+                }
+                case LongSupplier gauge -> {
+                    out.append("# TYPE ").append(name).append(" gauge\n");
+                    out.append(name).append(' ').append(Long.toString(gauge.getAsLong())).append('\n');
+                }
+                default -> throw new IllegalStateException("Unknown metric type for " + name);
+            }
+        }
+    }
+
+    /**
+     * Writes every metric as one JSON object, with histograms as nested objects.
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append("{\"timestamp\":").append(Long.toString(System.currentTimeMillis()));
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            out.append(",\n\"").append(e.getKey()).append("\":");
+            switch (e.getValue().instrument()) {
+                case Counter counter -> out.append(Long.toString(counter.get()));
+                case Histogram histogram -> out.append(String.format(Locale.ROOT,
+                    "{\"count\":%d,\"sum\":%d,\"mean\":%.3f,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d}",
+                    histogram.getCount(), histogram.getSum(), histogram.getMean(), histogram.getPercentile(0.5),
+                    histogram.getPercentile(0.9), histogram.getPercentile(0.99), histogram.getMax()));
+                case LongSupplier gauge -> out.append(Long.toString(gauge.getAsLong()));
+                default -> throw new IllegalStateException("Unknown metric type for " + e.getKey());
+            }
+        }
+        out.append("}\n");
+    }
+}
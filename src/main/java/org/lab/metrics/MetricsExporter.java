@@ -0,0 +1,82 @@
+package org.lab.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes a Metrics registry to a file on a background thread,
+ * for load tests and local Prometheus scrapers (e.g. node_exporter's textfile
+ * collector) to pick up.
+ *
+ * The format follows the file name: JSON for ".json", Prometheus text
+ * otherwise. Each dump is written to a temporary file and moved into place,
+ * so readers never see a partial file. close() writes a final dump.
+ */
+public class MetricsExporter implements AutoCloseable {
+    public static final long DEFAULT_PERIOD_MILLIS = 5000;
+
+    private final Metrics metrics;
+    private final Path path;
+    private final boolean json;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsExporter(Metrics metrics, Path path) {
+        this(metrics, path, DEFAULT_PERIOD_MILLIS);
+    }
+
+    public MetricsExporter(Metrics metrics, Path path, long periodMillis) {
+        this.metrics = metrics;
+        this.path = path;
+        this.json = path.getFileName().toString().endsWith(".json");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::writeQuietly, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the current values now, on the calling thread.
+     */
+    public synchronized void write() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp)) {
+            if (json) {
+                metrics.writeJson(out);
+            } else {
+                metrics.writePrometheus(out);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics to " + path + ": " + e.getMessage());
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        writeQuietly();
+    }
+}
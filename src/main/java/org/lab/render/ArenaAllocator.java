@@ -0,0 +1,388 @@
+package org.lab.render;
+
+/**
+ * Sub-allocator for one large linear range, such as a GPU buffer.
+ *
+ * Pure bookkeeping with no GL calls (see BufferArena for the GL side), so it
+ * can be exercised without a context. Units are whatever the caller chooses:
+ * bytes, vertices or indices.
+ *
+ * Every range, used or free, is a node in an address-ordered list. Free nodes
+ * are also kept in segregated free lists, one per power-of-two size class.
+ * Allocation does a first-fit scan of the request's own class, then takes the
+ * first node of any larger class (which always fits). Freed ranges merge with
+ * free neighbors, so there are never two adjacent free nodes.
+ *
+ * compactStep() defragments incrementally: it moves the highest live ranges
+ * into the lowest holes that fit and reports each move, so the caller can copy
+ * the data a few ranges per frame. Moves never overlap their source. Holes are
+ * looked up through the free lists, and once a step finds nothing to move,
+ * further steps return at once until an allocate, free or grow changes the layout.
+ */
+public class ArenaAllocator {
+    private static final int BIN_COUNT = 32;
+
+    // Tail candidates tried per compaction move before giving up
+    private static final int MAX_MOVE_CANDIDATES = 16;
+
+    /**
+     * One range of the arena. Returned to callers for live allocations; the
+     * offset changes when compaction moves the range.
+     */
+    public static final class Allocation {
+        int offset;
+        int size;
+        boolean free;
+        Allocation prev, next;       // address order
+        Allocation binPrev, binNext; // free list links (free nodes only)
+
+        Allocation(int offset, int size, boolean free) {
+            this.offset = offset;
+            this.size = size;
+            this.free = free;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns false once the allocation has been freed.
+         */
+        public boolean isLive() {
+            return !free;
+        }
+    }
+
+    /**
+     * Receives the ranges moved by compactStep(). Called after the bookkeeping
+     * is updated; the caller copies size units from fromOffset to toOffset.
+     */
+    @FunctionalInterface
+    public interface MoveListener {
+        void moved(Allocation allocation, int fromOffset, int toOffset, int size);
+    }
+
+    private final Allocation[] bins = new Allocation[BIN_COUNT];
+    private Allocation head;
+    private Allocation tail;
+    private int capacity;
+    private int used;
+    private int liveCount;
+    private int freeBlockCount;
+    private boolean compactionStalled;
+
+    public ArenaAllocator(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        if (capacity > 0) {
+            Allocation all = new Allocation(0, capacity, true);
+            head = tail = all;
+            addToBin(all);
+        }
+    }
+
+    /**
+     * Allocates a range of the given size.
+     *
+     * @return the allocation, or null if no free range is large enough
+     */
+    public Allocation allocate(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Allocation size must be positive: " + size);
+        }
+
+        Allocation hole = null;
+        int bin = binFor(size);
+        for (Allocation node = bins[bin]; node != null; node = node.binNext) {
+            if (node.size >= size) {
+                hole = node;
+                break;
+            }
+        }
+        for (int b = bin + 1; hole == null && b < BIN_COUNT; b++) {
+            hole = bins[b];
+        }
+        if (hole == null) {
+            return null;
+        }
+
+        Allocation allocation = new Allocation(hole.offset, size, false);
+        insertBefore(hole, allocation);
+        shrinkFront(hole, size);
+        used += size;
+        liveCount++;
+        compactionStalled = false;
+        return allocation;
+    }
+
+    /**
+     * Releases a live allocation. Its range merges with neighboring free ranges.
+     */
+    public void free(Allocation allocation) {
+        if (allocation.free) {
+            throw new IllegalStateException("Allocation already freed");
+        }
+        used -= allocation.size;
+        liveCount--;
+        release(allocation);
+        compactionStalled = false;
+    }
+
+    /**
+     * Extends the arena; existing offsets are unchanged.
+     */
+    public void grow(int newCapacity) {
+        if (newCapacity <= capacity) return;
+        int extra = newCapacity - capacity;
+        if (tail != null && tail.free) {
+            removeFromBin(tail);
+            tail.size += extra;
+            addToBin(tail);
+        } else {
+            Allocation hole = new Allocation(capacity, extra, true);
+            insertAfter(tail, hole);
+            addToBin(hole);
+        }
+        capacity = newCapacity;
+        compactionStalled = false;
+    }
+
+    /**
+     * Moves up to maxMoves live ranges from the end of the arena into the lowest
+     * free holes that can hold them.
+     *
+     * @return the number of ranges moved; 0 once nothing more can be packed
+     */
+    public int compactStep(int maxMoves, MoveListener listener) {
+        int moves = 0;
+        while (moves < maxMoves && !compactionStalled && !isPacked()) {
+            if (!moveOne(listener)) {
+                compactionStalled = true;
+                break;
+            }
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * Returns true if all free space is one range at the end of the arena.
+     */
+    public boolean isPacked() {
+        return freeBlockCount == 0 || (freeBlockCount == 1 && tail.free);
+    }
+
+    private boolean moveOne(MoveListener listener) {
+        Allocation candidate = tail;
+        for (int tries = 0; candidate != null && tries < MAX_MOVE_CANDIDATES; candidate = candidate.prev) {
+            if (candidate.free) continue;
+            tries++;
+
+            Allocation hole = lowestHole(candidate.size, candidate.offset);
+            if (hole != null) {
+                relocate(candidate, hole, listener);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lowest free range below the given offset that can hold size units,
+     * searching only the size classes that can fit it.
+     */
+    private Allocation lowestHole(int size, int below) {
+        Allocation lowest = null;
+        for (int bin = binFor(size); bin < BIN_COUNT; bin++) {
+            for (Allocation node = bins[bin]; node != null; node = node.binNext) {
+                if (node.size >= size && node.offset < below && (lowest == null || node.offset < lowest.offset)) {
+                    lowest = node;
+                }
+            }
+        }
+        return lowest;
+    }
+
+    private void relocate(Allocation allocation, Allocation hole, MoveListener listener) {
+        int from = allocation.offset;
+        int size = allocation.size;
+
+        // Leave a free range where the allocation was
+        Allocation vacated = new Allocation(from, size, false);
+        insertBefore(allocation, vacated);
+        unlink(allocation);
+        release(vacated);
+
+        // Carve the front of the hole
+        allocation.offset = hole.offset;
+        insertBefore(hole, allocation);
+        shrinkFront(hole, size);
+
+        listener.moved(allocation, from, allocation.offset, size);
+    }
+
+    /**
+     * Turns a node into free space and merges it with free neighbors.
+     */
+    private void release(Allocation node) {
+        node.free = true;
+        Allocation merged = node;
+
+        Allocation prev = node.prev;
+        if (prev != null && prev.free) {
+            removeFromBin(prev);
+            prev.size += node.size;
+            unlink(node);
+            merged = prev;
+        }
+        Allocation next = merged.next;
+        if (next != null && next.free) {
+            removeFromBin(next);
+            merged.size += next.size;
+            unlink(next);
+        }
+        addToBin(merged);
+    }
+
+    /**
+     * Takes size units off the front of a free node, removing it when empty.
+     */
+    private void shrinkFront(Allocation hole, int size) {
+        removeFromBin(hole);
+        hole.offset += size;
+        hole.size -= size;
+        if (hole.size == 0) {
+            unlink(hole);
+        } else {
+            addToBin(hole);
+        }
+    }
+
+    private static int binFor(int size) {
+        return 31 - Integer.numberOfLeadingZeros(size);
+    }
+
+    private void addToBin(Allocation node) {
+        int bin = binFor(node.size);
+        node.binPrev = null;
+        node.binNext = bins[bin];
+        if (bins[bin] != null) {
+            bins[bin].binPrev = node;
+        }
+        bins[bin] = node;
+        freeBlockCount++;
+    }
+
+    private void removeFromBin(Allocation node) {
+        if (node.binPrev != null) {
+            node.binPrev.binNext = node.binNext;
+        } else {
+            bins[binFor(node.size)] = node.binNext;
+        }
+        if (node.binNext != null) {
+            node.binNext.binPrev = node.binPrev;
+        }
+        node.binPrev = null;
+        node.binNext = null;
+        freeBlockCount--;
+    }
+
+    private void insertBefore(Allocation at, Allocation node) {
+        node.prev = at.prev;
+        node.next = at;
+        if (at.prev != null) {
+            at.prev.next = node;
+        } else {
+            head = node;
+        }
+        at.prev = node;
+    }
+
+    private void insertAfter(Allocation at, Allocation node) {
+        node.prev = at;
+        node.next = at != null ? at.next : null;
+        if (at == null) {
+            head = node;
+        } else {
+            if (at.next != null) {
+                at.next.prev = node;
+            }
+            at.next = node;
+        }
+        if (node.next == null) {
+            tail = node;
+        }
+    }
+
+    private void unlink(Allocation node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getUsed() {
+        return used;
+    }
+
+    public int getFree() {
+        return capacity - used;
+    }
+
+    /**
+     * Returns the number of live allocations.
+     */
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Returns the number of separate free ranges.
+     */
+    public int getFreeBlockCount() {
+        return freeBlockCount;
+    }
+
+    /**
+     * Returns the size of the largest free range.
+     */
+    public int getLargestFree() {
+        for (int bin = BIN_COUNT - 1; bin >= 0; bin--) {
+            if (bins[bin] != null) {
+                int largest = 0;
+                for (Allocation node = bins[bin]; node != null; node = node.binNext) {
+                    largest = Math.max(largest, node.size);
+                }
+                return largest;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the share of free space outside the largest free range (0 = unfragmented).
+     */
+    public float getFragmentation() {
+        int free = getFree();
+        return free == 0 ? 0.0f : 1.0f - (float) getLargestFree() / free;
+    }
+}
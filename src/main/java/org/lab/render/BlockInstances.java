@@ -0,0 +1,55 @@
+package org.lab.render;
+
+import org.lab.world.Chunk;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs block instances in the 8-byte format read by block.vert.
+ *
+ * This is the CPU half of BlockRenderer batching and touches no GL state,
+ * so it can be benchmarked and tested without a context.
+ *
+ * Layout per instance:
+ * - chunk (unsigned int) - entry in the ChunkOrigins table holding the block's chunk
+ * - local x | local y << 4 (unsigned byte) - position inside the chunk
+ * - local z (unsigned byte)
+ * - textureIndex (unsigned byte) - texture array layer
+ * - flags (unsigned byte) - bits 0-1: scale class
+ */
+public final class BlockInstances {
+    // uint + 4 bytes
+    public static final int STRIDE = 8;
+    static final int DATA_OFFSET = 4;
+
+    // Scale classes: 0 = hidden (free retained slots), 1 = 1.0, 2 = 0.5, 3 = 0.25
+    public static final int SCALE_HIDDEN = 0;
+    public static final int SCALE_FULL = 1;
+
+    private BlockInstances() {
+    }
+
+    /**
+     * Writes one instance at the given slot. Only the chunk-local part of the
+     * block coordinates is stored; chunkEntry must be the ChunkOrigins entry of
+     * the chunk holding the block. Absolute write; the buffer position is not moved.
+     */
+    public static void write(ByteBuffer buffer, int slot, int chunkEntry, int x, int y, int z,
+                             int textureIndex, int flags) {
+        int offset = slot * STRIDE;
+        buffer.putInt(offset, chunkEntry);
+        buffer.put(offset + DATA_OFFSET, (byte) (Chunk.toLocal(x) | Chunk.toLocal(y) << Chunk.SHIFT));
+        buffer.put(offset + DATA_OFFSET + 1, (byte) Chunk.toLocal(z));
+        buffer.put(offset + DATA_OFFSET + 2, (byte) textureIndex);
+        buffer.put(offset + DATA_OFFSET + 3, (byte) flags);
+    }
+
+    /**
+     * Maps a block scale to the nearest scale class (1.0, 0.5 or 0.25), or hidden for non-positive scales.
+     */
+    public static int scaleClass(float scale) {
+        if (scale <= 0.0f) return SCALE_HIDDEN;
+        if (scale > 0.75f) return SCALE_FULL;
+        return scale > 0.375f ? 2 : 3;
+    }
+}
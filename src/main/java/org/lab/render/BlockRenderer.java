@@ -3,10 +3,20 @@ package org.lab.render;
 import org.joml.Matrix4f;
 import org.joml.Vector3i;
 import org.lab.engine.Shader;
+import org.lab.metrics.Counter;
+import org.lab.metrics.Metrics;
 import org.lab.world.Block;
+import org.lab.world.Chunk;
+import org.lab.world.LongIntHashMap;
+import org.lab.world.World;
+import org.lab.world.WorldListener;
 import org.lwjgl.system.MemoryUtil;
 
-import java.nio.FloatBuffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
 import static org.lwjgl.opengl.GL33C.*;
 
@@ -14,114 +24,262 @@ import static org.lwjgl.opengl.GL33C.*;
  * Instanced block renderer.
  * Batches blocks into a single draw call using instanced rendering.
  *
- * Instance data format (9 floats = 36 bytes per instance):
- * - position (vec3)
- * - rotation (vec3) - Euler angles
- * - scale (float)
- * - textureIndex (float)
- * - highlight (float) - 1.0 if highlighted, 0.0 otherwise
+ * Two ways to use it:
+ * - Immediate: begin() / addBlock() / end() / render() rebuilds the whole
+ *   instance buffer every frame. Instances are written straight into a
+ *   streaming VBO (persistently mapped and triple-buffered where supported,
+ *   see VBO.allocateStreaming), so there is no staging copy.
+ * - Retained: retain(world) gives every block a stable slot in the instance
+ *   VBO. The renderer then listens to world edits (register it with
+ *   World.addListener) and rewrites only the slots that changed, uploading
+ *   them as coalesced dirty ranges. Freed slots are recycled through a free
+ *   list. A static scene uploads nothing per frame.
+ * A renderer uses one mode or the other, not both.
+ *
+ * Capacity grows on demand: when an instance does not fit, the buffers are
+ * replaced by ones twice the size. In retained mode the staging buffer is
+ * reallocated and the VBO contents copied over on the GPU
+ * (glCopyBufferSubData); in immediate mode the batch written so far is copied
+ * into a new streaming VBO.
+ *
+ * Instance data format (8 bytes per instance, read as integer attributes, packed by BlockInstances):
+ * - chunk (unsigned int) - entry of the block's chunk in the origin table
+ * - local position (2 x unsigned byte) - 4 bits per axis inside the chunk
+ * - textureIndex (unsigned byte) - texture array layer
+ * - flags (unsigned byte) - bits 0-1: scale class
+ * The origin table (ChunkOrigins) is uploaded to a texture buffer that
+ * block.vert reads as uChunkOrigins to get back world coordinates.
+ * Rotation is not stored; blocks are always axis-aligned.
+ *
+ * Scale classes: 0 = hidden (free retained slots), 1 = 1.0, 2 = 0.5, 3 = 0.25.
+ *
+ * The highlighted block is not part of the instance data: setHighlight()
+ * passes its coordinate as a uniform and block.vert compares it per instance,
+ * so moving the highlight never touches the instance buffers.
  */
-public class BlockRenderer implements AutoCloseable {
-    // Instance attribute stride: 9 floats * 4 bytes = 36 bytes
-    private static final int INSTANCE_STRIDE = 9 * Float.BYTES;
-    private static final int FLOATS_PER_INSTANCE = 9;
+public class BlockRenderer implements WorldListener, AutoCloseable {
+    private static final int INSTANCE_STRIDE = BlockInstances.STRIDE;
+
+    private static final Counter INSTANCES_UPLOADED =
+        Metrics.global().counter("voxel_instances_uploaded_total", "Block instances written to GPU buffers");
+    private static final Counter BYTES_UPLOADED =
+        Metrics.global().counter("voxel_upload_bytes_total", "Instance and mesh bytes uploaded to the GPU");
+    private static final Counter DRAW_CALLS =
+        Metrics.global().counter("voxel_draw_calls_total", "World draw calls issued");
+
+    // Dirty runs separated by at most this many clean slots are uploaded as one range
+    private static final int RANGE_MERGE_GAP = 16;
+
+    // Texture unit of the chunk origin table; unit 0 holds the block textures
+    private static final int ORIGIN_TEXTURE_UNIT = 1;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / INSTANCE_STRIDE;
+
+    private final VAO vao;
+    private VBO instanceVbo;
+    private ByteBuffer instanceBuffer;
+    private int capacity;
+
+    // Immediate mode: streaming VBO, the region being written and where it ended up
+    private VBO streamVbo;
+    private ByteBuffer batchBuffer;
+    private long batchOffset;
+
+    // Buffer and offset the instance attributes currently point at
+    private VBO linkedVbo;
+    private long linkedOffset;
 
-    private final VBO instanceVbo;
-    private final FloatBuffer instanceBuffer;
-    private final int maxInstances;
+    // Origins of the chunks instances point into, and the texture buffer holding them
+    private final ChunkOrigins chunkOrigins = new ChunkOrigins();
+    private final VBO originVbo;
+    private final int originTexture;
+    private IntBuffer originBuffer;
 
     private int instanceCount;
     private boolean batching;
 
+    private boolean highlightEnabled;
+    private int highlightX, highlightY, highlightZ;
+
+    // Retained mode state
+    private boolean retained;
+    private final LongIntHashMap slotByBlock = new LongIntHashMap(-1);
+    private final BitSet dirtySlots = new BitSet();
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private long bytesUploadedLastFrame;
+    private int rangesUploadedLastFrame;
+
+    private final ChunkFrustumCuller culler = new ChunkFrustumCuller();
+
+    /**
+     * Creates a block renderer with a default initial capacity.
+     */
+    public BlockRenderer() {
+        this(DEFAULT_CAPACITY);
+    }
+
     /**
-     * Creates a block renderer with specified maximum instance capacity.
+     * Creates a block renderer with the specified initial instance capacity.
+     * The capacity grows automatically when more blocks are added.
      *
-     * @param maxInstances maximum number of blocks that can be rendered in one batch
+     * @param initialCapacity number of instances to allocate room for up front
      */
-    public BlockRenderer(int maxInstances) {
-        this.maxInstances = maxInstances;
+    public BlockRenderer(int initialCapacity) {
+        this.capacity = Math.max(1, initialCapacity);
 
         // Allocate CPU-side buffer for instance data
-        instanceBuffer = MemoryUtil.memAllocFloat(maxInstances * FLOATS_PER_INSTANCE);
+        instanceBuffer = MemoryUtil.memAlloc(capacity * INSTANCE_STRIDE);
 
         // Create and configure instance VBO
         instanceVbo = new VBO(GL_ARRAY_BUFFER);
-        instanceVbo.allocate((long) maxInstances * INSTANCE_STRIDE, GL_DYNAMIC_DRAW);
+        instanceVbo.allocate((long) capacity * INSTANCE_STRIDE, GL_DYNAMIC_DRAW);
 
-        // Link instance attributes to the cube mesh VAO
-        CubeMesh.bind();
-        instanceVbo.bind();
+        // Own VAO sharing the cube geometry, so several renderers can coexist
+        vao = CubeMesh.createVAO();
+        linkInstanceAttributes(instanceVbo, 0);
+        vao.unbind();
 
-        VAO vao = CubeMesh.getVAO();
+        originBuffer = MemoryUtil.memAllocInt(64 * ChunkOrigins.INTS_PER_ENTRY);
+        originVbo = new VBO(GL_TEXTURE_BUFFER);
+        originVbo.allocate((long) originBuffer.capacity() * Integer.BYTES, GL_DYNAMIC_DRAW);
+        originVbo.unbind();
+        originTexture = glGenTextures();
+        glBindTexture(GL_TEXTURE_BUFFER, originTexture);
+        glTexBuffer(GL_TEXTURE_BUFFER, GL_RGBA32I, originVbo.getId());
+        glBindTexture(GL_TEXTURE_BUFFER, 0);
+    }
 
-        // Location 3: iPosition (vec3)
-        vao.linkInstancedAttribute(3, 3, GL_FLOAT, false, INSTANCE_STRIDE, 0);
-        // Location 4: iRotation (vec3)
-        vao.linkInstancedAttribute(4, 3, GL_FLOAT, false, INSTANCE_STRIDE, 3 * Float.BYTES);
-        // Location 5: iScale (float)
-        vao.linkInstancedAttribute(5, 1, GL_FLOAT, false, INSTANCE_STRIDE, 6 * Float.BYTES);
-        // Location 6: iTexIndex (float)
-        vao.linkInstancedAttribute(6, 1, GL_FLOAT, false, INSTANCE_STRIDE, 7 * Float.BYTES);
-        // Location 7: iHighlight (float)
-        vao.linkInstancedAttribute(7, 1, GL_FLOAT, false, INSTANCE_STRIDE, 8 * Float.BYTES);
+    /**
+     * Points the instance attributes at instances starting at a byte offset of a VBO,
+     * unless they already do. The VAO must be bound.
+     */
+    private void linkInstanceAttributes(VBO vbo, long offset) {
+        if (vbo == linkedVbo && offset == linkedOffset) return;
+        vbo.bind();
 
-        instanceVbo.unbind();
-        CubeMesh.unbind();
+        // Location 3: iChunk (uint: origin table entry)
+        vao.linkInstancedIntegerAttribute(3, 1, GL_UNSIGNED_INT, INSTANCE_STRIDE, offset);
+        // Location 4: iData (uvec4: local x | y << 4, local z, texture layer, flags)
+        vao.linkInstancedIntegerAttribute(4, 4, GL_UNSIGNED_BYTE, INSTANCE_STRIDE, offset + BlockInstances.DATA_OFFSET);
+
+        vbo.unbind();
+        linkedVbo = vbo;
+        linkedOffset = offset;
+    }
+
+    private static VBO createStreamVbo(int capacity) {
+        VBO vbo = new VBO(GL_ARRAY_BUFFER);
+        vbo.allocateStreaming((long) capacity * INSTANCE_STRIDE);
+        return vbo;
+    }
+
+    /**
+     * Grows the staging buffer and instance VBO to hold at least minCapacity instances.
+     * Capacity doubles so that adding n blocks costs O(log n) reallocations.
+     * The first {@code preserved} instances already on the GPU are copied into the new VBO.
+     */
+    private void grow(int minCapacity, int preserved) {
+        if (minCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Exceeded maximum instance count: " + MAX_CAPACITY);
+        }
+        int newCapacity = (int) Math.min(MAX_CAPACITY, Math.max(minCapacity, (long) capacity * 2));
+        capacity = newCapacity;
+
+        if (!retained) {
+            // Carry the batch written so far over to a bigger streaming VBO
+            VBO grown = createStreamVbo(newCapacity);
+            ByteBuffer target = grown.beginStreamWrite();
+            MemoryUtil.memCopy(MemoryUtil.memAddress(batchBuffer, 0), MemoryUtil.memAddress(target, 0),
+                (long) preserved * INSTANCE_STRIDE);
+            streamVbo.close();
+            streamVbo = grown;
+            batchBuffer = target;
+            return;
+        }
+
+        // memRealloc keeps the contents and the position
+        instanceBuffer = MemoryUtil.memRealloc(instanceBuffer, newCapacity * INSTANCE_STRIDE);
+
+        VBO grown = new VBO(GL_ARRAY_BUFFER);
+        grown.allocate((long) newCapacity * INSTANCE_STRIDE, GL_DYNAMIC_DRAW);
+        if (preserved > 0) {
+            grown.copySubData(instanceVbo, 0, 0, (long) preserved * INSTANCE_STRIDE);
+        }
+        instanceVbo.close();
+        instanceVbo = grown;
+
+        vao.bind();
+        linkInstanceAttributes(instanceVbo, 0);
+        vao.unbind();
     }
 
     /**
      * Begins a new batch. Call before adding blocks.
      */
     public void begin() {
+        if (retained) {
+            throw new IllegalStateException("Immediate batching is not available in retained mode");
+        }
+        if (streamVbo == null) {
+            streamVbo = createStreamVbo(capacity);
+        }
         instanceCount = 0;
-        instanceBuffer.clear();
+        chunkOrigins.clear();
+        batchBuffer = streamVbo.beginStreamWrite();
         batching = true;
     }
 
     /**
      * Adds a block to the current batch.
+     * The position is rounded down to the block grid, the scale to the nearest
+     * scale class, and the rotation is ignored.
      *
-     * @param block     the block to add
-     * @param highlight 1.0f if highlighted, 0.0f otherwise
+     * @param block the block to add
      */
-    public void addBlock(Block block, float highlight) {
+    public void addBlock(Block block) {
+        addBlock((int) Math.floor(block.getPosition().x),
+            (int) Math.floor(block.getPosition().y),
+            (int) Math.floor(block.getPosition().z),
+            block.getTextureIndex(), BlockInstances.scaleClass(block.getScale()));
+    }
+
+    /**
+     * Adds a unit-scale, unrotated block at integer coordinates to the current batch.
+     * Used when batching straight from World chunk data without Block objects.
+     *
+     * @param textureIndex texture array layer
+     */
+    public void addBlock(int x, int y, int z, int textureIndex) {
+        addBlock(x, y, z, textureIndex, BlockInstances.SCALE_FULL);
+    }
+
+    private void addBlock(int x, int y, int z, int textureIndex, int scaleClass) {
         if (!batching) {
             throw new IllegalStateException("Must call begin() before addBlock()");
         }
-        if (instanceCount >= maxInstances) {
-            throw new IllegalStateException("Exceeded maximum instance count: " + maxInstances);
+        if (instanceCount >= capacity) {
+            grow(instanceCount + 1, instanceCount);
         }
 
-        // Write instance data directly to buffer
-        instanceBuffer.put(block.getPosition().x);
-        instanceBuffer.put(block.getPosition().y);
-        instanceBuffer.put(block.getPosition().z);
-        instanceBuffer.put(block.getRotation().x);
-        instanceBuffer.put(block.getRotation().y);
-        instanceBuffer.put(block.getRotation().z);
-        instanceBuffer.put(block.getScale());
-        instanceBuffer.put((float) block.getTextureIndex());
-        instanceBuffer.put(highlight);
-
+        BlockInstances.write(batchBuffer, instanceCount, chunkOrigins.acquire(x, y, z), x, y, z,
+            textureIndex, scaleClass);
         instanceCount++;
     }
 
     /**
-     * Ends the batch and uploads data to GPU.
+     * Ends the batch and makes it visible to the GPU.
      */
     public void end() {
         if (!batching) {
             throw new IllegalStateException("Must call begin() before end()");
         }
         batching = false;
-
-        if (instanceCount == 0) return;
-
-        // Upload instance data to GPU
-        instanceBuffer.flip();
-        instanceVbo.bind();
-        instanceVbo.updateSubData(0, instanceBuffer);
-        instanceVbo.unbind();
+        batchOffset = streamVbo.endStreamWrite((long) instanceCount * INSTANCE_STRIDE);
+        batchBuffer = null;
+        INSTANCES_UPLOADED.add(instanceCount);
+        BYTES_UPLOADED.add((long) instanceCount * INSTANCE_STRIDE + uploadChunkOrigins());
     }
 
     /**
@@ -135,10 +293,26 @@ public class BlockRenderer implements AutoCloseable {
 
         shader.use();
         shader.setMatrix4f("uViewProjection", viewProjection);
+        shader.setInt("uChunkOrigins", ORIGIN_TEXTURE_UNIT);
+        shader.setInt("uHighlightEnabled", highlightEnabled ? 1 : 0);
+        shader.setVector3i("uHighlight", highlightX, highlightY, highlightZ);
+
+        glActiveTexture(GL_TEXTURE0 + ORIGIN_TEXTURE_UNIT);
+        glBindTexture(GL_TEXTURE_BUFFER, originTexture);
+        glActiveTexture(GL_TEXTURE0);
 
-        CubeMesh.bind();
+        vao.bind();
+        if (retained) {
+            linkInstanceAttributes(instanceVbo, 0);
+        } else {
+            linkInstanceAttributes(streamVbo, batchOffset);
+        }
         glDrawElementsInstanced(GL_TRIANGLES, CubeMesh.getIndexCount(), GL_UNSIGNED_INT, 0, instanceCount);
-        CubeMesh.unbind();
+        DRAW_CALLS.increment();
+        vao.unbind();
+        if (!retained) {
+            streamVbo.fenceStream();
+        }
     }
 
     /**
@@ -150,34 +324,280 @@ public class BlockRenderer implements AutoCloseable {
      * @param highlightPos   position of highlighted block, or null for no highlight
      */
     public void render(Iterable<Block> blocks, Shader shader, Matrix4f viewProjection, Vector3i highlightPos) {
+        setHighlight(highlightPos);
         begin();
         for (Block block : blocks) {
-            float highlight = 0.0f;
-            if (highlightPos != null) {
-                int bx = (int) Math.floor(block.getPosition().x);
-                int by = (int) Math.floor(block.getPosition().y);
-                int bz = (int) Math.floor(block.getPosition().z);
-                if (bx == highlightPos.x && by == highlightPos.y && bz == highlightPos.z) {
-                    highlight = 1.0f;
-                }
+            addBlock(block);
+        }
+        end();
+        render(shader, viewProjection);
+    }
+
+    /**
+     * Convenience method: batches the world's blocks and renders in one call.
+     * Chunks outside the view frustum are skipped before batching, so the cost
+     * scales with what is on screen rather than with the world size.
+     *
+     * @param world          world whose blocks are rendered
+     * @param shader         shader to use
+     * @param viewProjection combined view-projection matrix
+     * @param highlightPos   position of highlighted block, or null for no highlight
+     */
+    public void render(World world, Shader shader, Matrix4f viewProjection, Vector3i highlightPos) {
+        World.BlockVisitor visitor = this::addBlock;
+
+        setHighlight(highlightPos);
+        begin();
+        culler.update(viewProjection);
+        List<Chunk> chunks = world.getChunks();
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            if (culler.isChunkVisible(chunk.getChunkX(), chunk.getChunkY(), chunk.getChunkZ())) {
+                chunk.forEachBlock(visitor);
             }
-            addBlock(block, highlight);
         }
         end();
         render(shader, viewProjection);
     }
 
+    /**
+     * Switches to retained mode and assigns a slot to every block in the world.
+     * Register this renderer as a listener on the same world to keep it in sync.
+     */
+    public void retain(World world) {
+        retained = true;
+        batching = false;
+        slotByBlock.clear();
+        dirtySlots.clear();
+        freeCount = 0;
+        instanceCount = 0;
+        chunkOrigins.clear();
+        if (instanceBuffer.capacity() < capacity * INSTANCE_STRIDE) {
+            // Capacity grew in immediate mode, which only resizes the streaming VBO
+            instanceBuffer = MemoryUtil.memRealloc(instanceBuffer, capacity * INSTANCE_STRIDE);
+            instanceVbo.allocate((long) capacity * INSTANCE_STRIDE, GL_DYNAMIC_DRAW);
+            instanceVbo.unbind();
+        }
+
+        world.forEachBlock((x, y, z, textureIndex) -> blockChanged(x, y, z, -1, textureIndex));
+    }
+
+    @Override
+    public void blockChanged(int x, int y, int z, int previousType, int newType) {
+        if (!retained) return;
+
+        long key = World.packCoord(x, y, z);
+        if (newType < 0) {
+            int slot = slotByBlock.remove(key);
+            if (slot >= 0) {
+                chunkOrigins.release(x, y, z);
+                // Hidden scale class collapses the cube so the free slot draws nothing
+                BlockInstances.write(instanceBuffer, slot, 0, 0, 0, 0, 0, BlockInstances.SCALE_HIDDEN);
+                dirtySlots.set(slot);
+                pushFreeSlot(slot);
+            }
+            return;
+        }
+
+        int slot = slotByBlock.get(key);
+        int chunkEntry;
+        if (slot < 0) {
+            slot = allocateSlot();
+            slotByBlock.put(key, slot);
+            chunkEntry = chunkOrigins.acquire(x, y, z);
+        } else {
+            chunkEntry = chunkOrigins.find(x, y, z);
+        }
+        BlockInstances.write(instanceBuffer, slot, chunkEntry, x, y, z, newType, BlockInstances.SCALE_FULL);
+        dirtySlots.set(slot);
+    }
+
+    /**
+     * Highlights the block at the given coordinate in subsequent draws (null for none).
+     * Only a uniform changes; no instance data is rewritten.
+     */
+    public void setHighlight(Vector3i pos) {
+        highlightEnabled = pos != null;
+        if (pos != null) {
+            highlightX = pos.x;
+            highlightY = pos.y;
+            highlightZ = pos.z;
+        }
+    }
+
+    /**
+     * Uploads changed retained slots and draws every slot in use.
+     *
+     * @param shader         shader to use
+     * @param viewProjection combined view-projection matrix
+     */
+    public void renderRetained(Shader shader, Matrix4f viewProjection) {
+        if (!retained) {
+            throw new IllegalStateException("Call retain() before renderRetained()");
+        }
+        uploadDirtyRanges();
+        render(shader, viewProjection);
+    }
+
+    /**
+     * Uploads changed retained slots without drawing, for callers that time
+     * uploads separately. A following render() draws them.
+     */
+    public void uploadRetained() {
+        if (!retained) {
+            throw new IllegalStateException("Call retain() before uploadRetained()");
+        }
+        uploadDirtyRanges();
+    }
+
+    /**
+     * Uploads dirty slots as contiguous ranges. Runs separated by small clean
+     * gaps are merged, trading a few redundant bytes for fewer GL calls.
+     */
+    private void uploadDirtyRanges() {
+        bytesUploadedLastFrame = uploadChunkOrigins();
+        rangesUploadedLastFrame = 0;
+        if (dirtySlots.isEmpty()) {
+            BYTES_UPLOADED.add(bytesUploadedLastFrame);
+            return;
+        }
+
+        instanceVbo.bind();
+        int start = dirtySlots.nextSetBit(0);
+        while (start >= 0) {
+            int end = dirtySlots.nextClearBit(start);
+            int next = dirtySlots.nextSetBit(end);
+            while (next >= 0 && next - end <= RANGE_MERGE_GAP) {
+                end = dirtySlots.nextClearBit(next);
+                next = dirtySlots.nextSetBit(end);
+            }
+
+            instanceBuffer.limit(end * INSTANCE_STRIDE).position(start * INSTANCE_STRIDE);
+            instanceVbo.updateSubData((long) start * INSTANCE_STRIDE, instanceBuffer);
+            bytesUploadedLastFrame += (long) (end - start) * INSTANCE_STRIDE;
+            rangesUploadedLastFrame++;
+            INSTANCES_UPLOADED.add(end - start);
+
+            start = next;
+        }
+        instanceVbo.unbind();
+        instanceBuffer.clear();
+        dirtySlots.clear();
+        BYTES_UPLOADED.add(bytesUploadedLastFrame);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (instanceCount >= capacity) {
+            // Slots already uploaded stay valid; pending dirty ones are rewritten later anyway
+            grow(instanceCount + 1, instanceCount);
+        }
+        return instanceCount++;
+    }
+
+    private void pushFreeSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Re-uploads the chunk origin table if chunks were added since the last upload.
+     * The table is small (16 bytes per chunk), so it is sent whole, orphaning the old storage.
+     *
+     * @return bytes uploaded
+     */
+    private long uploadChunkOrigins() {
+        if (!chunkOrigins.isDirty()) return 0;
+
+        int ints = chunkOrigins.getCount() * ChunkOrigins.INTS_PER_ENTRY;
+        if (originBuffer.capacity() < ints) {
+            originBuffer = MemoryUtil.memRealloc(originBuffer, Math.max(ints, originBuffer.capacity() * 2));
+        }
+        originBuffer.clear();
+        chunkOrigins.write(originBuffer);
+        originBuffer.flip();
+
+        long bytes = (long) originBuffer.capacity() * Integer.BYTES;
+        originVbo.allocate(bytes, GL_DYNAMIC_DRAW);
+        originVbo.updateSubData(0, originBuffer);
+        originVbo.unbind();
+        return (long) ints * Integer.BYTES;
+    }
+
     public int getInstanceCount() {
         return instanceCount;
     }
 
-    public int getMaxInstances() {
-        return maxInstances;
+    /**
+     * Returns the number of instances the buffers currently have room for.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Enables or disables chunk frustum culling in render(World, ...) (enabled by default).
+     */
+    public void setFrustumCulling(boolean enabled) {
+        culler.setEnabled(enabled);
+    }
+
+    /**
+     * Returns the number of chunks batched by the last render(World, ...) call.
+     */
+    public int getVisibleChunkCount() {
+        return culler.getVisibleCount();
+    }
+
+    /**
+     * Returns the number of chunks skipped by frustum culling in the last render(World, ...) call.
+     */
+    public int getCulledChunkCount() {
+        return culler.getCulledCount();
+    }
+
+    /**
+     * Uses an occlusion culler's results to skip chunks hidden behind terrain (null to disable).
+     */
+    public void setOcclusionCuller(OcclusionCuller occlusionCuller) {
+        culler.setOcclusionCuller(occlusionCuller);
+    }
+
+    /**
+     * Returns the number of chunks skipped by occlusion culling in the last render(World, ...) call.
+     */
+    public int getOccludedChunkCount() {
+        return culler.getOccludedCount();
+    }
+
+    /**
+     * Returns the instance bytes uploaded by the last renderRetained() call.
+     */
+    public long getBytesUploadedLastFrame() {
+        return bytesUploadedLastFrame;
+    }
+
+    /**
+     * Returns the number of glBufferSubData ranges issued by the last renderRetained() call.
+     */
+    public int getRangesUploadedLastFrame() {
+        return rangesUploadedLastFrame;
     }
 
     @Override
     public void close() {
+        vao.close();
         instanceVbo.close();
+        if (streamVbo != null) {
+            streamVbo.close();
+        }
+        glDeleteTextures(originTexture);
+        originVbo.close();
         MemoryUtil.memFree(instanceBuffer);
+        MemoryUtil.memFree(originBuffer);
     }
 }
@@ -0,0 +1,180 @@
+package org.lab.render;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL33C.*;
+
+/**
+ * One large GL buffer shared by many sub-allocations.
+ *
+ * Space is tracked by an ArenaAllocator in units of unitBytes (one vertex, one
+ * index, one instance). When an allocation does not fit, the buffer is grown:
+ * a bigger buffer is created and the old contents copied over on the GPU, so
+ * existing offsets stay valid. Fragmentation is repaired incrementally with
+ * compactStep(), which moves a few allocations per call with
+ * glCopyBufferSubData inside the same buffer.
+ *
+ * The buffer object changes when it grows; anything that references it (VAO
+ * bindings) must be refreshed when getGeneration() changes.
+ *
+ * Uploads and copies go through the GL_COPY_READ/WRITE_BUFFER targets, so
+ * the arena never disturbs the binding of its own target. This matters for
+ * element buffers, whose binding is VAO state.
+ */
+public class BufferArena implements AutoCloseable {
+    private final int target;
+    private final int unitBytes;
+    private final int usage;
+    private final ArenaAllocator allocator;
+    private VBO buffer;
+    private int generation;
+    private int movedLastStep;
+
+    /**
+     * @param target buffer target the data is used with, e.g. GL_ARRAY_BUFFER
+     * @param unitBytes size of one allocation unit in bytes
+     * @param initialUnits initial capacity in units
+     */
+    public BufferArena(int target, int unitBytes, int initialUnits) {
+        this(target, unitBytes, initialUnits, GL_STATIC_DRAW);
+    }
+
+    public BufferArena(int target, int unitBytes, int initialUnits, int usage) {
+        this.target = target;
+        this.unitBytes = unitBytes;
+        this.usage = usage;
+        this.allocator = new ArenaAllocator(Math.max(1, initialUnits));
+        this.buffer = createBuffer(allocator.getCapacity());
+    }
+
+    private VBO createBuffer(int units) {
+        VBO created = new VBO(target);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, created.getId());
+        glBufferData(GL_COPY_WRITE_BUFFER, (long) units * unitBytes, usage);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+        return created;
+    }
+
+    /**
+     * Allocates a range of the given number of units, growing the buffer if needed.
+     */
+    public ArenaAllocator.Allocation allocate(int units) {
+        ArenaAllocator.Allocation allocation = allocator.allocate(units);
+        if (allocation == null) {
+            grow(units);
+            allocation = allocator.allocate(units);
+        }
+        return allocation;
+    }
+
+    /**
+     * Releases an allocation. Its data is left in place until the space is reused.
+     */
+    public void free(ArenaAllocator.Allocation allocation) {
+        allocator.free(allocation);
+    }
+
+    /**
+     * At least doubles the capacity, and makes sure a range of the given size fits at the end.
+     */
+    private void grow(int units) {
+        int capacity = allocator.getCapacity();
+        long wanted = Math.max((long) capacity * 2, (long) capacity + units);
+        int newCapacity = (int) Math.min(Integer.MAX_VALUE / unitBytes, wanted);
+        if (newCapacity <= capacity) {
+            throw new IllegalStateException("Buffer arena cannot grow past " + capacity + " units");
+        }
+
+        VBO grown = createBuffer(newCapacity);
+        grown.copySubData(buffer, 0, 0, (long) capacity * unitBytes);
+        buffer.close();
+        buffer = grown;
+        allocator.grow(newCapacity);
+        generation++;
+    }
+
+    public void upload(ArenaAllocator.Allocation allocation, FloatBuffer data) {
+        glBindBuffer(GL_COPY_WRITE_BUFFER, buffer.getId());
+        glBufferSubData(GL_COPY_WRITE_BUFFER, byteOffset(allocation), data);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+    }
+
+    public void upload(ArenaAllocator.Allocation allocation, IntBuffer data) {
+        glBindBuffer(GL_COPY_WRITE_BUFFER, buffer.getId());
+        glBufferSubData(GL_COPY_WRITE_BUFFER, byteOffset(allocation), data);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+    }
+
+    public void upload(ArenaAllocator.Allocation allocation, ByteBuffer data) {
+        glBindBuffer(GL_COPY_WRITE_BUFFER, buffer.getId());
+        glBufferSubData(GL_COPY_WRITE_BUFFER, byteOffset(allocation), data);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+    }
+
+    /**
+     * Moves up to maxMoves allocations toward the start of the buffer.
+     * Their offsets are updated in place; meant to be called once per frame.
+     *
+     * @return the number of allocations moved
+     */
+    public int compactStep(int maxMoves) {
+        if (allocator.isPacked()) {
+            movedLastStep = 0;
+            return 0;
+        }
+        movedLastStep = allocator.compactStep(maxMoves, (allocation, from, to, size) ->
+            buffer.copySubData(buffer, (long) from * unitBytes, (long) to * unitBytes, (long) size * unitBytes));
+        return movedLastStep;
+    }
+
+    /**
+     * Returns the byte offset of an allocation inside the buffer.
+     */
+    public long byteOffset(ArenaAllocator.Allocation allocation) {
+        return (long) allocation.getOffset() * unitBytes;
+    }
+
+    /**
+     * Returns the current buffer object. Replaced whenever the arena grows.
+     */
+    public VBO getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns a counter that changes every time the buffer object is replaced.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    public ArenaAllocator getAllocator() {
+        return allocator;
+    }
+
+    public int getUnitBytes() {
+        return unitBytes;
+    }
+
+    public long getCapacityBytes() {
+        return (long) allocator.getCapacity() * unitBytes;
+    }
+
+    public long getUsedBytes() {
+        return (long) allocator.getUsed() * unitBytes;
+    }
+
+    /**
+     * Returns the number of allocations moved by the last compactStep() call.
+     */
+    public int getMovedLastStep() {
+        return movedLastStep;
+    }
+
+    @Override
+    public void close() {
+        buffer.close();
+    }
+}
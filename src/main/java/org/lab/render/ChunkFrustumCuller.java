@@ -0,0 +1,103 @@
+package org.lab.render;
+
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.lab.world.Chunk;
+
+/**
+ * Chunk-level view frustum culling.
+ *
+ * Call update() once per frame with the view-projection matrix, then test each
+ * chunk's bounding box before drawing or batching it. Blocks are centered on
+ * their integer coordinates, so a chunk spans [base - 0.5, base + SIZE - 0.5]
+ * on each axis. Visible and culled counts are kept for the current frame.
+ *
+ * If an OcclusionCuller is attached, chunks inside the frustum are also
+ * checked against its latest results and counted as occluded when hidden.
+ */
+public class ChunkFrustumCuller {
+    private static final float HALF_BLOCK = 0.5f;
+
+    private final FrustumIntersection frustum = new FrustumIntersection();
+    private boolean enabled = true;
+    private OcclusionCuller occlusionCuller;
+    private int visibleCount;
+    private int culledCount;
+    private int occludedCount;
+
+    /**
+     * Extracts the frustum planes and resets the per-frame counters.
+     */
+    public void update(Matrix4f viewProjection) {
+        frustum.set(viewProjection, false);
+        visibleCount = 0;
+        culledCount = 0;
+        occludedCount = 0;
+    }
+
+    /**
+     * Returns true if any part of the chunk may be on screen, and counts the result.
+     */
+    public boolean isChunkVisible(int chunkX, int chunkY, int chunkZ) {
+        if (!intersects(chunkX, chunkY, chunkZ)) {
+            culledCount++;
+            return false;
+        }
+        if (occlusionCuller != null && !occlusionCuller.isChunkVisible(chunkX, chunkY, chunkZ)) {
+            occludedCount++;
+            return false;
+        }
+        visibleCount++;
+        return true;
+    }
+
+    /**
+     * Tests the chunk against the frustum only, without occlusion or statistics.
+     */
+    public boolean intersects(int chunkX, int chunkY, int chunkZ) {
+        if (!enabled) return true;
+        float minX = (chunkX << Chunk.SHIFT) - HALF_BLOCK;
+        float minY = (chunkY << Chunk.SHIFT) - HALF_BLOCK;
+        float minZ = (chunkZ << Chunk.SHIFT) - HALF_BLOCK;
+        return frustum.testAab(minX, minY, minZ, minX + Chunk.SIZE, minY + Chunk.SIZE, minZ + Chunk.SIZE);
+    }
+
+    /**
+     * Attaches an occlusion culler whose results are applied after the frustum test (null to detach).
+     */
+    public void setOcclusionCuller(OcclusionCuller occlusionCuller) {
+        this.occlusionCuller = occlusionCuller;
+    }
+
+    /**
+     * Enables or disables culling. When disabled every chunk is reported visible.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the number of chunks that passed the test since the last update().
+     */
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    /**
+     * Returns the number of chunks outside the frustum since the last update().
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    /**
+     * Returns the number of chunks inside the frustum but hidden by occluders since the last update().
+     */
+    public int getOccludedCount() {
+        return occludedCount;
+    }
+}
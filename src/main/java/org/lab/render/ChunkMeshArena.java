@@ -0,0 +1,311 @@
+package org.lab.render;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL33C.*;
+import static org.lwjgl.opengl.GL43C.GL_DRAW_INDIRECT_BUFFER;
+import static org.lwjgl.opengl.GL43C.glMultiDrawElementsIndirect;
+
+/**
+ * Shared GPU storage for all chunk meshes, drawn with one multi-draw call.
+ *
+ * Every chunk mesh is sub-allocated from one large vertex buffer and one large
+ * index buffer behind a single VAO. Indices stay local to their mesh (they
+ * start at 0) and are offset with a base vertex at draw time, so meshes can be
+ * moved around the arena without rewriting them.
+ *
+ * Drawing: queue the visible meshes with addDraw(), then drawQueued() submits
+ * them all with glMultiDrawElementsIndirect when GL 4.3 is available, or with
+ * glMultiDrawElementsBaseVertex on GL 3.3.
+ *
+ * Space comes from two BufferArenas (vertices and indices). They grow when a
+ * mesh does not fit, and compactStep() moves a few meshes per frame into
+ * earlier holes to keep the free space contiguous.
+ *
+ * The index buffer is only ever bound while the arena's VAO is bound, since
+ * the element array binding is part of VAO state.
+ */
+public class ChunkMeshArena implements AutoCloseable {
+    private static final int STRIDE = ChunkMeshData.FLOATS_PER_VERTEX * Float.BYTES;
+
+    // DrawElementsIndirectCommand: count, instanceCount, firstIndex, baseVertex, baseInstance
+    private static final int COMMAND_INTS = 5;
+
+    /**
+     * Location of one mesh inside the arena. Offsets change when the arena is compacted.
+     */
+    public static final class Allocation {
+        ArenaAllocator.Allocation vertices;
+        ArenaAllocator.Allocation indices;
+
+        public int getVertexCount() {
+            return vertices.getSize();
+        }
+
+        public int getIndexCount() {
+            return indices.getSize();
+        }
+    }
+
+    private final boolean indirect;
+    private final VAO vao = new VAO();
+    private final BufferArena vertexArena;
+    private final BufferArena indexArena;
+    private int linkedVertexGeneration = -1;
+    private int linkedIndexGeneration = -1;
+    private int meshCount;
+    private int movedRangeCount;
+
+    // Per-frame draw queue
+    private int drawCount;
+    private int drawCapacity = 256;
+    private IntBuffer commands;             // GL 4.3 path
+    private VBO indirectBuffer;
+    private IntBuffer counts;               // GL 3.3 path
+    private IntBuffer baseVertices;
+    private PointerBuffer indexOffsets;
+
+    /**
+     * Creates an arena using multi-draw indirect if the current context supports GL 4.3.
+     */
+    public ChunkMeshArena(int initialVertices, int initialIndices) {
+        this(initialVertices, initialIndices, GL.getCapabilities().OpenGL43);
+    }
+
+    /**
+     * @param useIndirect false forces the GL 3.3 glMultiDrawElementsBaseVertex path
+     */
+    public ChunkMeshArena(int initialVertices, int initialIndices, boolean useIndirect) {
+        this.indirect = useIndirect;
+        vertexArena = new BufferArena(GL_ARRAY_BUFFER, STRIDE, initialVertices);
+        indexArena = new BufferArena(GL_ELEMENT_ARRAY_BUFFER, Integer.BYTES, initialIndices);
+        linkBuffers();
+
+        if (indirect) {
+            commands = MemoryUtil.memAllocInt(drawCapacity * COMMAND_INTS);
+            indirectBuffer = new VBO(GL_DRAW_INDIRECT_BUFFER);
+        } else {
+            counts = MemoryUtil.memAllocInt(drawCapacity);
+            baseVertices = MemoryUtil.memAllocInt(drawCapacity);
+            indexOffsets = MemoryUtil.memAllocPointer(drawCapacity);
+        }
+    }
+
+    /**
+     * Points the VAO at the current vertex and index buffers if either arena replaced its buffer.
+     */
+    private void linkBuffers() {
+        if (linkedVertexGeneration == vertexArena.getGeneration()
+            && linkedIndexGeneration == indexArena.getGeneration()) {
+            return;
+        }
+        VBO vertexBuffer = vertexArena.getBuffer();
+        vao.bind();
+        vertexBuffer.bind();
+        indexArena.getBuffer().bind();
+
+        // Location 0: position (vec3)
+        vao.linkAttribute(0, 3, GL_FLOAT, false, STRIDE, 0);
+        // Location 1: texCoord (vec2)
+        vao.linkAttribute(1, 2, GL_FLOAT, false, STRIDE, 3 * Float.BYTES);
+        // Location 2: normal (vec3)
+        vao.linkAttribute(2, 3, GL_FLOAT, false, STRIDE, 5 * Float.BYTES);
+        // Location 3: texture layer (float)
+        vao.linkAttribute(3, 1, GL_FLOAT, false, STRIDE, 8 * Float.BYTES);
+
+        vao.unbind();
+        vertexBuffer.unbind();
+        linkedVertexGeneration = vertexArena.getGeneration();
+        linkedIndexGeneration = indexArena.getGeneration();
+    }
+
+    /**
+     * Stores a mesh in the arena, reusing the previous allocation when the sizes match.
+     * Both buffers must be flipped; empty data frees the allocation.
+     *
+     * @param previous the mesh's current allocation, or null
+     * @return the allocation now holding the mesh, or null if the mesh is empty
+     */
+    public Allocation upload(Allocation previous, FloatBuffer vertices, IntBuffer indices) {
+        int indexCount = indices != null ? indices.remaining() : 0;
+        int vertexCount = indexCount > 0 ? vertices.remaining() / ChunkMeshData.FLOATS_PER_VERTEX : 0;
+
+        Allocation allocation = previous;
+        if (allocation != null && (allocation.getVertexCount() != vertexCount || allocation.getIndexCount() != indexCount)) {
+            free(allocation);
+            allocation = null;
+        }
+        if (indexCount == 0) {
+            return null;
+        }
+        if (allocation == null) {
+            allocation = new Allocation();
+            allocation.vertices = vertexArena.allocate(vertexCount);
+            allocation.indices = indexArena.allocate(indexCount);
+            meshCount++;
+            linkBuffers();
+        }
+
+        vertexArena.upload(allocation.vertices, vertices);
+        indexArena.upload(allocation.indices, indices);
+        return allocation;
+    }
+
+    /**
+     * Releases a mesh's space. The allocation must not be used afterwards.
+     */
+    public void free(Allocation allocation) {
+        if (allocation == null || allocation.vertices == null) return;
+        vertexArena.free(allocation.vertices);
+        indexArena.free(allocation.indices);
+        allocation.vertices = null;
+        allocation.indices = null;
+        meshCount--;
+    }
+
+    /**
+     * Moves up to maxMoves vertex ranges and maxMoves index ranges into earlier holes.
+     * Cheap when the arena is already packed; meant to be called once per frame.
+     *
+     * @return the number of ranges moved
+     */
+    public int compactStep(int maxMoves) {
+        int moved = vertexArena.compactStep(maxMoves) + indexArena.compactStep(maxMoves);
+        movedRangeCount += moved;
+        return moved;
+    }
+
+    /**
+     * Starts a new draw queue for this frame.
+     */
+    public void beginDraws() {
+        drawCount = 0;
+    }
+
+    /**
+     * Queues one mesh for the next drawQueued() call.
+     */
+    public void addDraw(Allocation allocation) {
+        if (allocation == null) return;
+        if (drawCount == drawCapacity) {
+            growDrawQueue();
+        }
+        if (indirect) {
+            int base = drawCount * COMMAND_INTS;
+            commands.put(base, allocation.indices.getSize());
+            commands.put(base + 1, 1);
+            commands.put(base + 2, allocation.indices.getOffset());
+            commands.put(base + 3, allocation.vertices.getOffset());
+            commands.put(base + 4, 0);
+        } else {
+            counts.put(drawCount, allocation.indices.getSize());
+            baseVertices.put(drawCount, allocation.vertices.getOffset());
+            indexOffsets.put(drawCount, indexArena.byteOffset(allocation.indices));
+        }
+        drawCount++;
+    }
+
+    private void growDrawQueue() {
+        drawCapacity *= 2;
+        if (indirect) {
+            commands = MemoryUtil.memRealloc(commands, drawCapacity * COMMAND_INTS);
+        } else {
+            counts = MemoryUtil.memRealloc(counts, drawCapacity);
+            baseVertices = MemoryUtil.memRealloc(baseVertices, drawCapacity);
+            indexOffsets = MemoryUtil.memRealloc(indexOffsets, drawCapacity);
+        }
+    }
+
+    /**
+     * Draws every queued mesh in a single call. Shader and uniforms must already be set.
+     */
+    public void drawQueued() {
+        if (drawCount == 0) return;
+
+        vao.bind();
+        if (indirect) {
+            commands.limit(drawCount * COMMAND_INTS).position(0);
+            indirectBuffer.bind();
+            glBufferData(GL_DRAW_INDIRECT_BUFFER, commands, GL_STREAM_DRAW);
+            glMultiDrawElementsIndirect(GL_TRIANGLES, GL_UNSIGNED_INT, 0L, drawCount, 0);
+            indirectBuffer.unbind();
+            commands.clear();
+        } else {
+            counts.limit(drawCount).position(0);
+            baseVertices.limit(drawCount).position(0);
+            indexOffsets.limit(drawCount).position(0);
+            glMultiDrawElementsBaseVertex(GL_TRIANGLES, counts, GL_UNSIGNED_INT, indexOffsets, baseVertices);
+            counts.clear();
+            baseVertices.clear();
+            indexOffsets.clear();
+        }
+        vao.unbind();
+    }
+
+    /**
+     * Returns true if meshes are drawn with glMultiDrawElementsIndirect (GL 4.3).
+     */
+    public boolean isIndirect() {
+        return indirect;
+    }
+
+    /**
+     * Returns the number of meshes in the last draw queue.
+     */
+    public int getDrawCount() {
+        return drawCount;
+    }
+
+    public int getMeshCount() {
+        return meshCount;
+    }
+
+    /**
+     * Returns the GPU memory reserved by the vertex and index buffers, in bytes.
+     */
+    public long getCapacityBytes() {
+        return vertexArena.getCapacityBytes() + indexArena.getCapacityBytes();
+    }
+
+    /**
+     * Returns the GPU memory occupied by live meshes, in bytes.
+     */
+    public long getUsedBytes() {
+        return vertexArena.getUsedBytes() + indexArena.getUsedBytes();
+    }
+
+    /**
+     * Returns the total number of vertex and index ranges moved by compaction.
+     */
+    public int getMovedRangeCount() {
+        return movedRangeCount;
+    }
+
+    public BufferArena getVertexArena() {
+        return vertexArena;
+    }
+
+    public BufferArena getIndexArena() {
+        return indexArena;
+    }
+
+    @Override
+    public void close() {
+        vao.close();
+        vertexArena.close();
+        indexArena.close();
+        if (indirect) {
+            indirectBuffer.close();
+            MemoryUtil.memFree(commands);
+        } else {
+            MemoryUtil.memFree(counts);
+            MemoryUtil.memFree(baseVertices);
+            MemoryUtil.memFree(indexOffsets);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.lab.render;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * CPU-side mesh produced by ChunkMesher.
+ * Pure data: no OpenGL resources, so it can be built and inspected headlessly.
+ *
+ * Vertex format: position(3) + texCoord(2) + normal(3) + textureLayer(1) = 9 floats.
+ * Geometry is a list of quads, 4 vertices each; indices are implicit
+ * (0, 1, 2, 2, 3, 0 per quad) and generated by writeIndices().
+ */
+public class ChunkMeshData {
+    public static final int FLOATS_PER_VERTEX = 9;
+    public static final int FLOATS_PER_QUAD = 4 * FLOATS_PER_VERTEX;
+    public static final int INDICES_PER_QUAD = 6;
+
+    private float[] vertices;
+    private int quadCount;
+
+    public ChunkMeshData() {
+        this(64);
+    }
+
+    /**
+     * Creates mesh data with room for the given number of quads before growing.
+     */
+    public ChunkMeshData(int initialQuads) {
+        this.vertices = new float[Math.max(1, initialQuads) * FLOATS_PER_QUAD];
+    }
+
+    /**
+     * Clears the mesh so the buffer can be reused for another build.
+     */
+    public void clear() {
+        quadCount = 0;
+    }
+
+    /**
+     * Appends one quad. Corners must be given counter-clockwise seen from
+     * the front, matching the winding used by CubeMesh.
+     *
+     * @param corners 4 corners as x, y, z triples (12 floats)
+     * @param uvs     4 texture coordinates as u, v pairs (8 floats)
+     */
+    public void addQuad(float[] corners, float[] uvs, float nx, float ny, float nz, int textureLayer) {
+        int offset = quadCount * FLOATS_PER_QUAD;
+        if (offset + FLOATS_PER_QUAD > vertices.length) {
+            vertices = Arrays.copyOf(vertices, vertices.length * 2);
+        }
+        for (int v = 0; v < 4; v++) {
+            vertices[offset++] = corners[v * 3];
+            vertices[offset++] = corners[v * 3 + 1];
+            vertices[offset++] = corners[v * 3 + 2];
+            vertices[offset++] = uvs[v * 2];
+            vertices[offset++] = uvs[v * 2 + 1];
+            vertices[offset++] = nx;
+            vertices[offset++] = ny;
+            vertices[offset++] = nz;
+            vertices[offset++] = textureLayer;
+        }
+        quadCount++;
+    }
+
+    /**
+     * Writes the implicit quad indices into the buffer.
+     */
+    public void writeIndices(IntBuffer buffer) {
+        for (int q = 0; q < quadCount; q++) {
+            int base = q * 4;
+            buffer.put(base).put(base + 1).put(base + 2);
+            buffer.put(base + 2).put(base + 3).put(base);
+        }
+    }
+
+    /**
+     * Returns the backing vertex array. Only the first getFloatCount() entries are valid.
+     */
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    public int getFloatCount() {
+        return quadCount * FLOATS_PER_QUAD;
+    }
+
+    public int getQuadCount() {
+        return quadCount;
+    }
+
+    public int getVertexCount() {
+        return quadCount * 4;
+    }
+
+    public int getIndexCount() {
+        return quadCount * INDICES_PER_QUAD;
+    }
+
+    public int getTriangleCount() {
+        return quadCount * 2;
+    }
+
+    public boolean isEmpty() {
+        return quadCount == 0;
+    }
+}
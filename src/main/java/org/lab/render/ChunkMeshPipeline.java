@@ -0,0 +1,214 @@
+package org.lab.render;
+
+import org.lab.world.ChunkSnapshot;
+import org.lab.world.World;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background chunk meshing.
+ *
+ * The render thread submits chunks; each submission captures an immutable
+ * ChunkSnapshot right away, so the world can keep changing while workers mesh.
+ * Workers build the mesh into off-heap buffers (MemoryUtil) and publish it on a
+ * lock-free queue. The render thread polls finished meshes and uploads them to
+ * the GPU (no GL calls happen on worker threads).
+ *
+ * Every submission gets a sequence number so callers can discard results that
+ * were superseded by a newer submission for the same chunk.
+ *
+ * Alongside the mesh, workers compute the chunk's face-to-face connectivity
+ * (ChunkConnectivity) from the same snapshot.
+ *
+ * A submission whose meshing throws still publishes a result, marked failed,
+ * so callers waiting on its sequence number are not left pending forever.
+ */
+public class ChunkMeshPipeline implements AutoCloseable {
+
+    /**
+     * Finished mesh for one chunk, held in off-heap memory until uploaded.
+     * The receiver must call free() once done with it.
+     * Failed results carry the error instead of a mesh.
+     */
+    public static final class MeshResult {
+        public final long key;
+        public final long sequence;
+        public final int chunkX, chunkY, chunkZ;
+        public final int indexCount;
+        public final int triangleCount;
+        public final int connectivity;
+        private final Throwable error;
+        private FloatBuffer vertices;
+        private IntBuffer indices;
+
+        MeshResult(long key, long sequence, ChunkSnapshot snapshot, ChunkMeshData data, int connectivity) {
+            this.key = key;
+            this.sequence = sequence;
+            this.chunkX = snapshot.getChunkX();
+            this.chunkY = snapshot.getChunkY();
+            this.chunkZ = snapshot.getChunkZ();
+            this.indexCount = data.getIndexCount();
+            this.triangleCount = data.getTriangleCount();
+            this.connectivity = connectivity;
+            this.error = null;
+
+            if (indexCount > 0) {
+                vertices = MemoryUtil.memAllocFloat(data.getFloatCount());
+                vertices.put(data.getVertices(), 0, data.getFloatCount()).flip();
+                indices = MemoryUtil.memAllocInt(indexCount);
+                data.writeIndices(indices);
+                indices.flip();
+            }
+        }
+
+        MeshResult(long key, long sequence, int chunkX, int chunkY, int chunkZ, Throwable error) {
+            this.key = key;
+            this.sequence = sequence;
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.chunkZ = chunkZ;
+            this.indexCount = 0;
+            this.triangleCount = 0;
+            this.connectivity = 0;
+            this.error = error;
+        }
+
+        /**
+         * Returns true if meshing threw; the result then holds no mesh.
+         */
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        /**
+         * Returns what meshing threw, or null for a successful result.
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public FloatBuffer getVertices() {
+            return vertices;
+        }
+
+        public IntBuffer getIndices() {
+            return indices;
+        }
+
+        /**
+         * Returns the size of the vertex and index data in bytes.
+         */
+        public long getByteSize() {
+            if (indexCount == 0) return 0;
+            return (long) vertices.remaining() * Float.BYTES + (long) indices.remaining() * Integer.BYTES;
+        }
+
+        /**
+         * Releases the off-heap buffers.
+         */
+        public void free() {
+            if (vertices != null) {
+                MemoryUtil.memFree(vertices);
+                MemoryUtil.memFree(indices);
+                vertices = null;
+                indices = null;
+            }
+        }
+    }
+
+    private final ExecutorService workers;
+    private final ConcurrentLinkedQueue<MeshResult> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Each worker thread keeps its own mesher and scratch mesh
+    private final ThreadLocal<ChunkMesher> meshers;
+    private final ThreadLocal<ChunkMeshData> scratch = ThreadLocal.withInitial(() -> new ChunkMeshData(4096));
+
+    private long nextSequence;
+
+    /**
+     * Creates a pipeline with the given mesh mode and worker count.
+     */
+    public ChunkMeshPipeline(ChunkMesher.Mode mode, int threads) {
+        this.meshers = ThreadLocal.withInitial(() -> new ChunkMesher(mode));
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "chunk-mesher-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Captures a snapshot of the chunk and queues it for meshing.
+     * Must be called on the thread that edits the world.
+     *
+     * @return sequence number of this submission
+     */
+    public long submit(World world, int chunkX, int chunkY, int chunkZ) {
+        long sequence = nextSequence++;
+        long key = World.packCoord(chunkX, chunkY, chunkZ);
+        ChunkSnapshot snapshot = ChunkSnapshot.capture(world, chunkX, chunkY, chunkZ);
+
+        inFlight.incrementAndGet();
+        workers.execute(() -> {
+            try {
+                ChunkMeshData data = scratch.get();
+                meshers.get().build(snapshot, chunkX, chunkY, chunkZ, data);
+                int connectivity = snapshot.computeConnectivity();
+                completed.add(new MeshResult(key, sequence, snapshot, data, connectivity));
+            } catch (RuntimeException | OutOfMemoryError e) {
+                // memAlloc reports exhausted native memory as OutOfMemoryError
+                System.err.println("Chunk meshing failed for " + chunkX + ", " + chunkY + ", " + chunkZ);
+                e.printStackTrace();
+                completed.add(new MeshResult(key, sequence, chunkX, chunkY, chunkZ, e));
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        return sequence;
+    }
+
+    /**
+     * Returns the next finished mesh, or null if none is ready.
+     */
+    public MeshResult poll() {
+        return completed.poll();
+    }
+
+    /**
+     * Returns true if no meshes are being built or waiting to be polled.
+     */
+    public boolean isIdle() {
+        return inFlight.get() == 0 && completed.isEmpty();
+    }
+
+    /**
+     * Returns the number of chunks currently being meshed.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        MeshResult result;
+        while ((result = completed.poll()) != null) {
+            result.free();
+        }
+    }
+}
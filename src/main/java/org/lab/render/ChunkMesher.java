@@ -0,0 +1,253 @@
+package org.lab.render;
+
+import org.lab.world.BlockAccess;
+import org.lab.world.Chunk;
+
+/**
+ * Builds CPU meshes for one chunk, emitting only the faces that are exposed
+ * to an empty neighbor. Buried faces (e.g., between stacked terrain blocks)
+ * are skipped, which removes most of the geometry in solid terrain.
+ *
+ * Two modes are available:
+ * - CULLED: one quad per exposed block face
+ * - GREEDY: exposed faces that are coplanar, adjacent and share a texture layer
+ *   are merged into larger rectangles; texture coordinates tile across them
+ *
+ * Geometry matches CubeMesh: a block at integer (x, y, z) spans x-0.5..x+0.5
+ * on each axis, so chunk meshes and instanced blocks line up exactly.
+ * No OpenGL calls are made here; meshes can be built and checked headlessly.
+ */
+public class ChunkMesher {
+
+    /**
+     * Meshing strategy.
+     */
+    public enum Mode {
+        CULLED,
+        GREEDY
+    }
+
+    // Face order matches CubeMesh: front (Z+), back (Z-), top (Y+), bottom (Y-), right (X+), left (X-)
+    static final int FACE_COUNT = 6;
+
+    // Outward normal of each face
+    static final int[][] NORMALS = {
+        {0, 0, 1}, {0, 0, -1}, {0, 1, 0}, {0, -1, 0}, {1, 0, 0}, {-1, 0, 0}
+    };
+
+    // In-plane texture axes per face; U x V = normal, so corners wind counter-clockwise
+    static final int[][] U_AXES = {
+        {1, 0, 0}, {-1, 0, 0}, {1, 0, 0}, {1, 0, 0}, {0, 0, -1}, {0, 0, 1}
+    };
+    static final int[][] V_AXES = {
+        {0, 1, 0}, {0, 1, 0}, {0, 0, -1}, {0, 0, 1}, {0, 1, 0}, {0, 1, 0}
+    };
+
+    // Index of the world axis each face's U and V directions run along
+    private static final int[] U_AXIS_INDEX = axisIndices(U_AXES);
+    private static final int[] V_AXIS_INDEX = axisIndices(V_AXES);
+
+    private final Mode mode;
+
+    // Scratch arrays reused for every quad
+    private final float[] corners = new float[12];
+    private final float[] uvs = new float[8];
+    private final int[] origin = new int[3];
+
+    // Greedy mode: one slice of faces, texture layer + 1 per cell (0 = no face)
+    private final int[] mask = new int[Chunk.SIZE * Chunk.SIZE];
+    private final int[] local = new int[3];
+
+    /**
+     * Creates a mesher in per-face culled mode.
+     */
+    public ChunkMesher() {
+        this(Mode.CULLED);
+    }
+
+    public ChunkMesher(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Builds a mesh for the given chunk into a new ChunkMeshData.
+     */
+    public ChunkMeshData build(BlockAccess blocks, int chunkX, int chunkY, int chunkZ) {
+        ChunkMeshData mesh = new ChunkMeshData();
+        build(blocks, chunkX, chunkY, chunkZ, mesh);
+        return mesh;
+    }
+
+    /**
+     * Builds a mesh for the given chunk, reusing the output buffer.
+     * Neighbor lookups that fall outside the chunk go through the same
+     * BlockAccess, so faces on chunk borders are culled correctly too.
+     */
+    public void build(BlockAccess blocks, int chunkX, int chunkY, int chunkZ, ChunkMeshData out) {
+        out.clear();
+        if (mode == Mode.GREEDY) {
+            buildGreedy(blocks, chunkX, chunkY, chunkZ, out);
+        } else {
+            buildCulled(blocks, chunkX, chunkY, chunkZ, out);
+        }
+    }
+
+    private void buildCulled(BlockAccess blocks, int chunkX, int chunkY, int chunkZ, ChunkMeshData out) {
+        int baseX = chunkX << Chunk.SHIFT;
+        int baseY = chunkY << Chunk.SHIFT;
+        int baseZ = chunkZ << Chunk.SHIFT;
+
+        for (int ly = 0; ly < Chunk.SIZE; ly++) {
+            for (int lz = 0; lz < Chunk.SIZE; lz++) {
+                for (int lx = 0; lx < Chunk.SIZE; lx++) {
+                    int x = baseX + lx;
+                    int y = baseY + ly;
+                    int z = baseZ + lz;
+                    int type = blocks.getBlockType(x, y, z);
+                    if (type < 0) continue;
+
+                    for (int face = 0; face < FACE_COUNT; face++) {
+                        int[] n = NORMALS[face];
+                        if (blocks.getBlockType(x + n[0], y + n[1], z + n[2]) < 0) {
+                            emitQuad(out, face, x, y, z, 1, 1, type);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Greedy meshing: for each face direction and each slice of the chunk along
+     * that direction, collects exposed faces into a 16x16 mask and merges runs
+     * of equal texture layer into rectangles (first along U, then along V).
+     */
+    private void buildGreedy(BlockAccess blocks, int chunkX, int chunkY, int chunkZ, ChunkMeshData out) {
+        int baseX = chunkX << Chunk.SHIFT;
+        int baseY = chunkY << Chunk.SHIFT;
+        int baseZ = chunkZ << Chunk.SHIFT;
+
+        for (int face = 0; face < FACE_COUNT; face++) {
+            int[] n = NORMALS[face];
+            int uAxis = U_AXIS_INDEX[face];
+            int vAxis = V_AXIS_INDEX[face];
+            int normalAxis = 3 - uAxis - vAxis;
+
+            for (int slice = 0; slice < Chunk.SIZE; slice++) {
+                // Build the mask of exposed faces in this slice
+                local[normalAxis] = slice;
+                for (int j = 0; j < Chunk.SIZE; j++) {
+                    local[vAxis] = j;
+                    for (int i = 0; i < Chunk.SIZE; i++) {
+                        local[uAxis] = i;
+                        int x = baseX + local[0];
+                        int y = baseY + local[1];
+                        int z = baseZ + local[2];
+                        int type = blocks.getBlockType(x, y, z);
+                        boolean exposed = type >= 0
+                            && blocks.getBlockType(x + n[0], y + n[1], z + n[2]) < 0;
+                        mask[j * Chunk.SIZE + i] = exposed ? type + 1 : 0;
+                    }
+                }
+
+                // Merge the mask into rectangles
+                for (int j = 0; j < Chunk.SIZE; j++) {
+                    for (int i = 0; i < Chunk.SIZE; ) {
+                        int cell = mask[j * Chunk.SIZE + i];
+                        if (cell == 0) {
+                            i++;
+                            continue;
+                        }
+
+                        int width = 1;
+                        while (i + width < Chunk.SIZE && mask[j * Chunk.SIZE + i + width] == cell) {
+                            width++;
+                        }
+
+                        int height = 1;
+                        grow:
+                        while (j + height < Chunk.SIZE) {
+                            int row = (j + height) * Chunk.SIZE;
+                            for (int k = 0; k < width; k++) {
+                                if (mask[row + i + k] != cell) break grow;
+                            }
+                            height++;
+                        }
+
+                        for (int dj = 0; dj < height; dj++) {
+                            int row = (j + dj) * Chunk.SIZE;
+                            for (int k = 0; k < width; k++) {
+                                mask[row + i + k] = 0;
+                            }
+                        }
+
+                        local[uAxis] = i;
+                        local[vAxis] = j;
+                        emitQuad(out, face, baseX + local[0], baseY + local[1], baseZ + local[2],
+                            width, height, cell - 1);
+                        i += width;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Emits one face quad covering a rectangle of blocks.
+     * (x, y, z) is the minimum block of the rectangle; width and height count
+     * blocks along the face's U and V axes. Texture coordinates span
+     * 0..width and 0..height so textures tile once per block (GL_REPEAT).
+     */
+    void emitQuad(ChunkMeshData out, int face, int x, int y, int z, int width, int height, int textureLayer) {
+        int[] n = NORMALS[face];
+        int[] u = U_AXES[face];
+        int[] v = V_AXES[face];
+        origin[0] = x;
+        origin[1] = y;
+        origin[2] = z;
+
+        // First corner: min or max edge of the rectangle on each axis depending on direction
+        for (int axis = 0; axis < 3; axis++) {
+            float lo = origin[axis] - 0.5f;
+            float extent;
+            boolean useMax;
+            if (u[axis] != 0) {
+                extent = width;
+                useMax = u[axis] < 0;
+            } else if (v[axis] != 0) {
+                extent = height;
+                useMax = v[axis] < 0;
+            } else {
+                extent = 1;
+                useMax = n[axis] > 0;
+            }
+            corners[axis] = useMax ? lo + extent : lo;
+        }
+
+        for (int axis = 0; axis < 3; axis++) {
+            corners[3 + axis] = corners[axis] + u[axis] * width;
+            corners[6 + axis] = corners[3 + axis] + v[axis] * height;
+            corners[9 + axis] = corners[axis] + v[axis] * height;
+        }
+
+        uvs[0] = 0;     uvs[1] = 0;
+        uvs[2] = width; uvs[3] = 0;
+        uvs[4] = width; uvs[5] = height;
+        uvs[6] = 0;     uvs[7] = height;
+
+        out.addQuad(corners, uvs, n[0], n[1], n[2], textureLayer);
+    }
+
+    private static int[] axisIndices(int[][] axes) {
+        int[] indices = new int[axes.length];
+        for (int face = 0; face < axes.length; face++) {
+            int[] axis = axes[face];
+            indices[face] = axis[0] != 0 ? 0 : (axis[1] != 0 ? 1 : 2);
+        }
+        return indices;
+    }
+}
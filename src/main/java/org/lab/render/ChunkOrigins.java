@@ -0,0 +1,154 @@
+package org.lab.render;
+
+import org.lab.world.Chunk;
+import org.lab.world.LongIntHashMap;
+import org.lab.world.World;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Table of chunk origins that block instances point into.
+ *
+ * Instances store only their position inside a chunk plus the index of their
+ * chunk's entry here; block.vert reads the origin back from a texture buffer.
+ * Every entry holds (x, y, z, 0) in block coordinates, so any world coordinate
+ * can be drawn without a range check.
+ *
+ * Entries are reference counted: acquire() once per instance and release()
+ * when the instance goes away, and an entry is recycled once nothing uses it.
+ * Immediate batches simply clear() the table before each frame.
+ * No OpenGL calls are made here.
+ */
+public final class ChunkOrigins {
+    public static final int INTS_PER_ENTRY = 4;
+
+    private final LongIntHashMap entryByChunk = new LongIntHashMap(-1);
+    private int[] origins = new int[64 * INTS_PER_ENTRY];
+    private int[] refCounts = new int[64];
+    private int[] freeEntries = new int[16];
+    private int freeCount;
+    private int count;
+    private boolean dirty;
+
+    // Consecutive blocks usually share a chunk; skip the map lookup for them
+    private long lastKey;
+    private int lastEntry = -1;
+
+    /**
+     * Returns the entry of the chunk holding the given block, adding it if needed,
+     * and counts one more instance using it.
+     */
+    public int acquire(int x, int y, int z) {
+        int chunkX = Chunk.toChunk(x);
+        int chunkY = Chunk.toChunk(y);
+        int chunkZ = Chunk.toChunk(z);
+        long key = World.packCoord(chunkX, chunkY, chunkZ);
+
+        int entry;
+        if (lastEntry >= 0 && key == lastKey) {
+            entry = lastEntry;
+        } else {
+            entry = entryByChunk.get(key);
+            if (entry < 0) {
+                entry = addEntry(chunkX, chunkY, chunkZ);
+                entryByChunk.put(key, entry);
+            }
+            lastKey = key;
+            lastEntry = entry;
+        }
+        refCounts[entry]++;
+        return entry;
+    }
+
+    /**
+     * Returns the entry of the chunk holding the given block without counting a new
+     * instance, or -1 if the chunk has none.
+     */
+    public int find(int x, int y, int z) {
+        return entryByChunk.get(World.packCoord(Chunk.toChunk(x), Chunk.toChunk(y), Chunk.toChunk(z)));
+    }
+
+    /**
+     * Drops one instance from the entry of the chunk holding the given block,
+     * recycling the entry when it was the last one.
+     */
+    public void release(int x, int y, int z) {
+        long key = World.packCoord(Chunk.toChunk(x), Chunk.toChunk(y), Chunk.toChunk(z));
+        int entry = entryByChunk.get(key);
+        if (entry < 0) {
+            throw new IllegalStateException("No chunk origin for block " + x + ", " + y + ", " + z);
+        }
+        if (--refCounts[entry] == 0) {
+            entryByChunk.remove(key);
+            if (entry == lastEntry) {
+                lastEntry = -1;
+            }
+            if (freeCount == freeEntries.length) {
+                freeEntries = Arrays.copyOf(freeEntries, freeCount * 2);
+            }
+            freeEntries[freeCount++] = entry;
+        }
+    }
+
+    private int addEntry(int chunkX, int chunkY, int chunkZ) {
+        int entry;
+        if (freeCount > 0) {
+            entry = freeEntries[--freeCount];
+        } else {
+            if (count == refCounts.length) {
+                refCounts = Arrays.copyOf(refCounts, count * 2);
+                origins = Arrays.copyOf(origins, count * 2 * INTS_PER_ENTRY);
+            }
+            entry = count++;
+        }
+        int offset = entry * INTS_PER_ENTRY;
+        origins[offset] = chunkX << Chunk.SHIFT;
+        origins[offset + 1] = chunkY << Chunk.SHIFT;
+        origins[offset + 2] = chunkZ << Chunk.SHIFT;
+        dirty = true;
+        return entry;
+    }
+
+    /**
+     * Forgets every entry.
+     */
+    public void clear() {
+        entryByChunk.clear();
+        Arrays.fill(refCounts, 0, count, 0);
+        count = 0;
+        freeCount = 0;
+        lastEntry = -1;
+        dirty = true;
+    }
+
+    /**
+     * Returns the number of entries in the table, including recycled ones waiting for reuse.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns true if entries were added or the table was cleared since the last write().
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Copies the table into the buffer at its position and marks it clean.
+     * The buffer needs room for getCount() * INTS_PER_ENTRY ints.
+     */
+    public void write(IntBuffer buffer) {
+        buffer.put(origins, 0, count * INTS_PER_ENTRY);
+        dirty = false;
+    }
+
+    /**
+     * Returns the origin of an entry along one axis (0 = x, 1 = y, 2 = z), in block coordinates.
+     */
+    public int getOrigin(int entry, int axis) {
+        return origins[entry * INTS_PER_ENTRY + axis];
+    }
+}
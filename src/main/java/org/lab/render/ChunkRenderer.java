@@ -0,0 +1,470 @@
+package org.lab.render;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lab.engine.Shader;
+import org.lab.metrics.Counter;
+import org.lab.metrics.Metrics;
+import org.lab.world.Chunk;
+import org.lab.world.ChunkConnectivity;
+import org.lab.world.LongIntHashMap;
+import org.lab.world.LongObjectHashMap;
+import org.lab.world.World;
+import org.lab.world.WorldListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Renders the world as one face-culled mesh per chunk.
+ * Unlike BlockRenderer, buried faces are never sent to the GPU.
+ *
+ * All chunk meshes live in one ChunkMeshArena, so the visible chunks are
+ * drawn with a single multi-draw call instead of one draw call per chunk.
+ *
+ * Meshes are built off the render thread by a ChunkMeshPipeline and uploaded
+ * here, limited to a per-frame byte budget so large remeshes are spread over
+ * several frames instead of causing a spike. Until a chunk's new mesh arrives,
+ * its previous mesh keeps being drawn.
+ *
+ * Register the renderer as a WorldListener: each block change marks only its
+ * chunk dirty, plus the neighboring chunk when the block sits on a chunk
+ * border (its exposed faces there may change). Only dirty chunks are remeshed.
+ * The meshing mode (per-face culled or greedy) is chosen at construction.
+ *
+ * Chunks outside the view frustum are skipped when drawing. When a camera
+ * position is given, chunks walled off from the camera (see ChunkVisibilityGraph)
+ * are skipped too; each chunk's connectivity comes back from the mesh workers.
+ */
+public class ChunkRenderer implements WorldListener, AutoCloseable {
+    private static final long DEFAULT_UPLOAD_BUDGET_BYTES = 4L * 1024 * 1024;
+    private static final int INITIAL_ARENA_VERTICES = 256 * 1024;
+    // Mesh ranges moved per frame to defragment the arena
+    private static final int COMPACTION_MOVES_PER_FRAME = 4;
+    // Resubmissions after a meshing failure before waiting for the chunk to change again
+    private static final int MAX_MESH_RETRIES = 2;
+
+    private static final Counter CHUNKS_MESHED =
+        Metrics.global().counter("voxel_chunks_meshed_total", "Chunks submitted for meshing");
+    private static final Counter BYTES_UPLOADED =
+        Metrics.global().counter("voxel_upload_bytes_total", "Instance and mesh bytes uploaded to the GPU");
+    private static final Counter DRAW_CALLS =
+        Metrics.global().counter("voxel_draw_calls_total", "World draw calls issued");
+    private static final Counter MESH_FAILURES =
+        Metrics.global().counter("voxel_chunk_mesh_failures_total", "Chunk meshing attempts that threw");
+
+    /**
+     * Arena allocation and bookkeeping for one chunk.
+     */
+    private static final class Entry {
+        final long key;
+        final int chunkX, chunkY, chunkZ;
+        ChunkMeshArena.Allocation allocation; // null while the chunk has no faces
+        int triangleCount;
+        int listIndex;              // position in the entries list, for O(1) removal
+        long pendingSequence = -1;  // latest submission; older results are discarded
+        int failedAttempts;         // meshing failures since the chunk last changed
+        int connectivity = ChunkConnectivity.ALL; // open until the first mesh arrives
+
+        Entry(long key, int chunkX, int chunkY, int chunkZ) {
+            this.key = key;
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    private final ChunkMeshPipeline pipeline;
+    private final ChunkMeshArena arena;
+    private final ChunkFrustumCuller culler = new ChunkFrustumCuller();
+    private final ChunkVisibilityGraph visibilityGraph = new ChunkVisibilityGraph();
+    private final ChunkVisibilityGraph.ConnectivitySource connectivitySource = this::getConnectivity;
+    private boolean caveCulling = true;
+    private int caveCulledCount;
+    private final LongObjectHashMap<Entry> entriesByKey = new LongObjectHashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+
+    // Chunks to remesh on the next update; the set dedupes repeated edits
+    private long[] dirtyKeys = new long[64];
+    private int dirtyCount;
+    private final LongIntHashMap dirtySet = new LongIntHashMap(0);
+    private boolean initialized;
+
+    private long uploadBudgetBytes = DEFAULT_UPLOAD_BUDGET_BYTES;
+    private int triangleCount;
+    private int chunksRemeshedLastFrame;
+    private long chunksRemeshedTotal;
+    private int uploadsLastFrame;
+    private long bytesUploadedLastFrame;
+
+    /**
+     * Creates a chunk renderer meshing on all but one available core.
+     */
+    public ChunkRenderer(ChunkMesher.Mode mode) {
+        this(mode, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public ChunkRenderer(ChunkMesher.Mode mode, int meshThreads) {
+        this.pipeline = new ChunkMeshPipeline(mode, meshThreads);
+        this.arena = new ChunkMeshArena(INITIAL_ARENA_VERTICES, INITIAL_ARENA_VERTICES * 3 / 2);
+    }
+
+    @Override
+    public void blockChanged(int x, int y, int z, int previousType, int newType) {
+        int cx = Chunk.toChunk(x);
+        int cy = Chunk.toChunk(y);
+        int cz = Chunk.toChunk(z);
+        markDirty(cx, cy, cz);
+
+        // The edit may open a passage; treat the chunk as open until its remesh arrives
+        Entry edited = entriesByKey.get(World.packCoord(cx, cy, cz));
+        if (edited != null) {
+            edited.connectivity = ChunkConnectivity.ALL;
+        }
+
+        // Border blocks can expose or hide faces in the adjacent chunk
+        int lx = Chunk.toLocal(x);
+        int ly = Chunk.toLocal(y);
+        int lz = Chunk.toLocal(z);
+        if (lx == 0) markDirty(cx - 1, cy, cz);
+        if (lx == Chunk.MASK) markDirty(cx + 1, cy, cz);
+        if (ly == 0) markDirty(cx, cy - 1, cz);
+        if (ly == Chunk.MASK) markDirty(cx, cy + 1, cz);
+        if (lz == 0) markDirty(cx, cy, cz - 1);
+        if (lz == Chunk.MASK) markDirty(cx, cy, cz + 1);
+    }
+
+    /**
+     * Marks a chunk for remeshing on the next update().
+     */
+    public void markDirty(int chunkX, int chunkY, int chunkZ) {
+        long key = World.packCoord(chunkX, chunkY, chunkZ);
+        Entry entry = entriesByKey.get(key);
+        if (entry != null) {
+            entry.failedAttempts = 0; // the chunk changed; failed meshes get a fresh set of retries
+        }
+        queueDirty(key);
+    }
+
+    private void queueDirty(long key) {
+        if (dirtySet.put(key, 1) == 1) return; // already queued
+
+        if (dirtyCount == dirtyKeys.length) {
+            dirtyKeys = Arrays.copyOf(dirtyKeys, dirtyCount * 2);
+        }
+        dirtyKeys[dirtyCount++] = key;
+    }
+
+    /**
+     * Remeshes dirty chunks, then uploads finished meshes within the per-frame budget.
+     * The first call meshes every chunk in the world. Must be called on the render thread.
+     */
+    public void update(World world) {
+        if (!initialized) {
+            initialized = true;
+            List<Chunk> chunks = world.getChunks();
+            for (int i = 0; i < chunks.size(); i++) {
+                Chunk chunk = chunks.get(i);
+                markDirty(chunk.getChunkX(), chunk.getChunkY(), chunk.getChunkZ());
+            }
+        }
+        submitDirty(world);
+        uploadFinished(uploadBudgetBytes);
+        arena.compactStep(COMPACTION_MOVES_PER_FRAME);
+    }
+
+    /**
+     * Blocks until every queued chunk is meshed and uploaded, ignoring the budget.
+     * Useful right after loading a world.
+     */
+    public void finishPending() {
+        while (!pipeline.isIdle()) {
+            uploadFinished(Long.MAX_VALUE);
+            LockSupport.parkNanos(100_000);
+        }
+        uploadFinished(Long.MAX_VALUE);
+    }
+
+    private void submitDirty(World world) {
+        chunksRemeshedLastFrame = 0;
+
+        for (int i = 0; i < dirtyCount; i++) {
+            long key = dirtyKeys[i];
+            Entry entry = entriesByKey.get(key);
+            int cx = entry != null ? entry.chunkX : World.unpackX(key);
+            int cy = entry != null ? entry.chunkY : World.unpackY(key);
+            int cz = entry != null ? entry.chunkZ : World.unpackZ(key);
+
+            if (world.getChunk(cx, cy, cz) == null) {
+                // Chunk emptied out (or never existed): drop its mesh
+                if (entry != null) {
+                    removeEntry(entry);
+                }
+                continue;
+            }
+
+            if (entry == null) {
+                entry = new Entry(key, cx, cy, cz);
+                entriesByKey.put(key, entry);
+                entry.listIndex = entries.size();
+                entries.add(entry);
+            }
+            entry.pendingSequence = pipeline.submit(world, cx, cy, cz);
+            chunksRemeshedLastFrame++;
+        }
+
+        chunksRemeshedTotal += chunksRemeshedLastFrame;
+        CHUNKS_MESHED.add(chunksRemeshedLastFrame);
+        dirtyCount = 0;
+        dirtySet.clear();
+    }
+
+    private void removeEntry(Entry entry) {
+        triangleCount -= entry.triangleCount;
+        arena.free(entry.allocation);
+        entry.allocation = null;
+        entriesByKey.remove(entry.key);
+
+        Entry last = entries.remove(entries.size() - 1);
+        if (last != entry) {
+            entries.set(entry.listIndex, last);
+            last.listIndex = entry.listIndex;
+        }
+    }
+
+    /**
+     * Uploads finished meshes until the byte budget is used up.
+     * At least one mesh is uploaded per call if any is ready.
+     *
+     * A failed mesh leaves the chunk's previous mesh in place and is resubmitted
+     * on the next update(), up to MAX_MESH_RETRIES times until the chunk changes.
+     */
+    private void uploadFinished(long budgetBytes) {
+        uploadsLastFrame = 0;
+        bytesUploadedLastFrame = 0;
+
+        ChunkMeshPipeline.MeshResult result;
+        while (bytesUploadedLastFrame < budgetBytes && (result = pipeline.poll()) != null) {
+            try {
+                Entry entry = entriesByKey.get(result.key);
+                if (entry == null || entry.pendingSequence != result.sequence) {
+                    continue; // chunk was removed or resubmitted since this mesh started
+                }
+                entry.pendingSequence = -1;
+                if (result.isFailed()) {
+                    MESH_FAILURES.increment();
+                    if (entry.failedAttempts++ < MAX_MESH_RETRIES) {
+                        queueDirty(entry.key);
+                    }
+                    continue;
+                }
+                entry.failedAttempts = 0;
+                entry.allocation = arena.upload(entry.allocation, result.getVertices(), result.getIndices());
+                triangleCount += result.triangleCount - entry.triangleCount;
+                entry.triangleCount = result.triangleCount;
+                entry.connectivity = result.connectivity;
+                uploadsLastFrame++;
+                bytesUploadedLastFrame += result.getByteSize();
+                BYTES_UPLOADED.add(result.getByteSize());
+            } finally {
+                result.free();
+            }
+        }
+    }
+
+    /**
+     * Draws the chunk meshes that intersect the view frustum.
+     *
+     * @param shader         chunk shader (shaders/chunk.vert)
+     * @param viewProjection combined view-projection matrix
+     */
+    public void render(Shader shader, Matrix4f viewProjection) {
+        render(shader, viewProjection, null);
+    }
+
+    /**
+     * Draws the chunk meshes that intersect the view frustum and, if cave culling
+     * is enabled, can be reached from the camera through open space.
+     *
+     * @param shader         chunk shader (shaders/chunk.vert)
+     * @param viewProjection combined view-projection matrix
+     * @param cameraPos      camera position in world space, or null to skip cave culling
+     */
+    public void render(Shader shader, Matrix4f viewProjection, Vector3f cameraPos) {
+        shader.use();
+        shader.setMatrix4f("uViewProjection", viewProjection);
+
+        culler.update(viewProjection);
+        boolean useGraph = caveCulling && cameraPos != null && !entries.isEmpty();
+        if (useGraph) {
+            computeVisibilityGraph(cameraPos);
+        }
+
+        caveCulledCount = 0;
+        int queued = 0;
+        arena.beginDraws();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (useGraph && !visibilityGraph.isVisible(entry.chunkX, entry.chunkY, entry.chunkZ)) {
+                caveCulledCount++;
+                continue;
+            }
+            if (culler.isChunkVisible(entry.chunkX, entry.chunkY, entry.chunkZ)) {
+                if (entry.allocation != null) {
+                    arena.addDraw(entry.allocation);
+                    queued++;
+                }
+            }
+        }
+        arena.drawQueued();
+        if (queued > 0) {
+            DRAW_CALLS.increment();  // one multi-draw call for all queued meshes
+        }
+    }
+
+    /**
+     * Searches from the camera chunk, bounded by the box around all meshed chunks.
+     */
+    private void computeVisibilityGraph(Vector3f cameraPos) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            minX = Math.min(minX, entry.chunkX);
+            minY = Math.min(minY, entry.chunkY);
+            minZ = Math.min(minZ, entry.chunkZ);
+            maxX = Math.max(maxX, entry.chunkX);
+            maxY = Math.max(maxY, entry.chunkY);
+            maxZ = Math.max(maxZ, entry.chunkZ);
+        }
+
+        // Blocks are centered on integer coordinates, so round to the nearest block first
+        int cameraX = Chunk.toChunk(Math.round(cameraPos.x));
+        int cameraY = Chunk.toChunk(Math.round(cameraPos.y));
+        int cameraZ = Chunk.toChunk(Math.round(cameraPos.z));
+        visibilityGraph.compute(cameraX, cameraY, cameraZ,
+            minX - 1, minY - 1, minZ - 1, maxX + 1, maxY + 1, maxZ + 1,
+            culler, connectivitySource);
+    }
+
+    private int getConnectivity(int chunkX, int chunkY, int chunkZ) {
+        Entry entry = entriesByKey.get(World.packCoord(chunkX, chunkY, chunkZ));
+        return entry != null ? entry.connectivity : ChunkConnectivity.ALL;
+    }
+
+    /**
+     * Enables or disables cave culling (enabled by default; needs a camera position in render()).
+     */
+    public void setCaveCulling(boolean enabled) {
+        this.caveCulling = enabled;
+    }
+
+    /**
+     * Returns the number of chunks skipped by cave culling in the last render().
+     */
+    public int getCaveCulledChunkCount() {
+        return caveCulledCount;
+    }
+
+    /**
+     * Enables or disables frustum culling (enabled by default).
+     */
+    public void setFrustumCulling(boolean enabled) {
+        culler.setEnabled(enabled);
+    }
+
+    /**
+     * Returns the number of chunks drawn by the last render().
+     */
+    public int getVisibleChunkCount() {
+        return culler.getVisibleCount();
+    }
+
+    /**
+     * Returns the number of chunks skipped by frustum culling in the last render().
+     */
+    public int getCulledChunkCount() {
+        return culler.getCulledCount();
+    }
+
+    /**
+     * Uses an occlusion culler's results to skip chunks hidden behind terrain (null to disable).
+     */
+    public void setOcclusionCuller(OcclusionCuller occlusionCuller) {
+        culler.setOcclusionCuller(occlusionCuller);
+    }
+
+    /**
+     * Returns the number of chunks skipped by occlusion culling in the last render().
+     */
+    public int getOccludedChunkCount() {
+        return culler.getOccludedCount();
+    }
+
+    /**
+     * Sets the maximum number of mesh bytes uploaded to the GPU per frame.
+     */
+    public void setUploadBudgetBytes(long uploadBudgetBytes) {
+        this.uploadBudgetBytes = uploadBudgetBytes;
+    }
+
+    /**
+     * Returns the number of chunk meshes currently held on the GPU.
+     */
+    public int getChunkCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total number of triangles across all chunk meshes.
+     */
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Returns how many chunks were submitted for remeshing by the last update().
+     */
+    public int getChunksRemeshedLastFrame() {
+        return chunksRemeshedLastFrame;
+    }
+
+    /**
+     * Returns how many chunk remeshes were submitted since creation.
+     */
+    public long getChunksRemeshedTotal() {
+        return chunksRemeshedTotal;
+    }
+
+    /**
+     * Returns the number of chunks still being meshed in the background.
+     */
+    public int getPendingCount() {
+        return pipeline.getInFlightCount();
+    }
+
+    public int getUploadsLastFrame() {
+        return uploadsLastFrame;
+    }
+
+    public long getBytesUploadedLastFrame() {
+        return bytesUploadedLastFrame;
+    }
+
+    /**
+     * Returns the shared mesh storage, for memory and draw statistics.
+     */
+    public ChunkMeshArena getArena() {
+        return arena;
+    }
+
+    @Override
+    public void close() {
+        pipeline.close();
+        arena.close();
+        entries.clear();
+        entriesByKey.clear();
+    }
+}
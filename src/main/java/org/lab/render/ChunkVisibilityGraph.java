@@ -0,0 +1,112 @@
+package org.lab.render;
+
+import org.lab.world.ChunkConnectivity;
+import org.lab.world.LongIntHashMap;
+import org.lab.world.World;
+
+import java.util.Arrays;
+
+/**
+ * Cave culling: finds the chunks that are potentially visible from the camera
+ * by walking the chunk grid through connected empty space.
+ *
+ * The search starts in the camera's chunk and steps into a neighbor only if
+ * the current chunk's connectivity lets the face it was entered through see
+ * the face it leaves through. It never steps back toward the camera (a
+ * direction opposite to one already taken), and skips chunks outside the
+ * frustum or outside the given bounds. Chunks it never reaches are hidden
+ * behind solid walls and need not be drawn.
+ *
+ * Chunks without connectivity data (air, not yet meshed) count as fully open.
+ */
+public class ChunkVisibilityGraph {
+
+    /**
+     * Supplies a chunk's connectivity mask (ChunkConnectivity.ALL if unknown or empty).
+     */
+    @FunctionalInterface
+    public interface ConnectivitySource {
+        int getConnectivity(int chunkX, int chunkY, int chunkZ);
+    }
+
+    private final LongIntHashMap visited = new LongIntHashMap(0);
+
+    // BFS queue: chunk coordinates, entry face (-1 for the start chunk) and directions taken
+    private int[] queue = new int[5 * 256];
+    private boolean active;
+
+    /**
+     * Runs the search from the camera chunk.
+     * If the camera is outside the bounds the search is skipped and every chunk is reported visible,
+     * since it would otherwise have to walk an unbounded amount of open air.
+     *
+     * @param frustum culler already updated with this frame's view-projection
+     */
+    public void compute(int cameraX, int cameraY, int cameraZ,
+                        int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                        ChunkFrustumCuller frustum, ConnectivitySource source) {
+        visited.clear();
+        active = cameraX >= minX && cameraX <= maxX
+            && cameraY >= minY && cameraY <= maxY
+            && cameraZ >= minZ && cameraZ <= maxZ;
+        if (!active) return;
+
+        visited.put(World.packCoord(cameraX, cameraY, cameraZ), 1);
+        int head = 0;
+        int tail = push(0, cameraX, cameraY, cameraZ, -1, 0);
+
+        while (head < tail) {
+            int cx = queue[head];
+            int cy = queue[head + 1];
+            int cz = queue[head + 2];
+            int entryFace = queue[head + 3];
+            int directions = queue[head + 4];
+            head += 5;
+
+            int connectivity = source.getConnectivity(cx, cy, cz);
+            for (int face = 0; face < ChunkConnectivity.FACE_COUNT; face++) {
+                // Never walk back toward the camera
+                if ((directions & (1 << ChunkConnectivity.opposite(face))) != 0) continue;
+                if (entryFace >= 0 && !ChunkConnectivity.isConnected(connectivity, entryFace, face)) continue;
+
+                int nx = cx + ChunkConnectivity.offsetX(face);
+                int ny = cy + ChunkConnectivity.offsetY(face);
+                int nz = cz + ChunkConnectivity.offsetZ(face);
+                if (nx < minX || nx > maxX || ny < minY || ny > maxY || nz < minZ || nz > maxZ) continue;
+
+                long key = World.packCoord(nx, ny, nz);
+                if (visited.get(key) != 0) continue;
+                if (!frustum.intersects(nx, ny, nz)) continue;
+
+                visited.put(key, 1);
+                tail = push(tail, nx, ny, nz, ChunkConnectivity.opposite(face), directions | (1 << face));
+            }
+        }
+    }
+
+    private int push(int tail, int x, int y, int z, int entryFace, int directions) {
+        if (tail + 5 > queue.length) {
+            queue = Arrays.copyOf(queue, queue.length * 2);
+        }
+        queue[tail] = x;
+        queue[tail + 1] = y;
+        queue[tail + 2] = z;
+        queue[tail + 3] = entryFace;
+        queue[tail + 4] = directions;
+        return tail + 5;
+    }
+
+    /**
+     * Returns true if the last search reached the chunk (or was skipped).
+     */
+    public boolean isVisible(int chunkX, int chunkY, int chunkZ) {
+        return !active || visited.get(World.packCoord(chunkX, chunkY, chunkZ)) != 0;
+    }
+
+    /**
+     * Returns the number of chunks the last search reached.
+     */
+    public int getReachedCount() {
+        return visited.size();
+    }
+}
@@ -95,12 +95,7 @@ public final class CubeMesh {
         ebo.uploadData(indices, GL_STATIC_DRAW);
 
         // Configure vertex attributes (per-vertex data)
-        // Location 0: position (vec3)
-        vao.linkAttribute(0, 3, GL_FLOAT, false, STRIDE, 0);
-        // Location 1: texCoord (vec2)
-        vao.linkAttribute(1, 2, GL_FLOAT, false, STRIDE, 3 * Float.BYTES);
-        // Location 2: normal (vec3)
-        vao.linkAttribute(2, 3, GL_FLOAT, false, STRIDE, 5 * Float.BYTES);
+        linkVertexAttributes(vao);
 
         vao.unbind();
         vbo.unbind();
@@ -108,6 +103,37 @@ public final class CubeMesh {
         initialized = true;
     }
 
+    /**
+     * Creates a new VAO that shares the cube's vertex and index buffers.
+     * Lets each instanced renderer own its instance attribute bindings
+     * instead of overwriting those of the shared cube VAO.
+     * The returned VAO is left bound.
+     */
+    public static VAO createVAO() {
+        if (!initialized) {
+            throw new IllegalStateException("CubeMesh not initialized. Call initialize() first.");
+        }
+        VAO instanceVao = new VAO();
+        instanceVao.bind();
+        vbo.bind();
+        ebo.bind();
+        linkVertexAttributes(instanceVao);
+        vbo.unbind();
+        return instanceVao;
+    }
+
+    /**
+     * Configures per-vertex attributes for the bound cube VBO.
+     */
+    private static void linkVertexAttributes(VAO target) {
+        // Location 0: position (vec3)
+        target.linkAttribute(0, 3, GL_FLOAT, false, STRIDE, 0);
+        // Location 1: texCoord (vec2)
+        target.linkAttribute(1, 2, GL_FLOAT, false, STRIDE, 3 * Float.BYTES);
+        // Location 2: normal (vec3)
+        target.linkAttribute(2, 3, GL_FLOAT, false, STRIDE, 5 * Float.BYTES);
+    }
+
     /**
      * Binds the cube VAO for rendering.
      */
@@ -0,0 +1,95 @@
+package org.lab.render;
+
+import org.lab.engine.FrameProfiler;
+
+/**
+ * Times FrameProfiler stages on the GPU with one GpuTimer per stage.
+ *
+ * Each stage keeps a small ring of queries, so a frame's results are read
+ * back one or two frames later by collect() instead of stalling on them.
+ * The frame and CPU submit time of every pending query are queued alongside
+ * it, and finished results are added to the profiler as GPU spans that start
+ * when their commands were submitted.
+ *
+ * GL_TIME_ELAPSED queries cannot nest, so GPU stages must not overlap.
+ */
+public class GpuProfiler implements AutoCloseable {
+    // Enough for results to arrive two frames late without dropping any
+    private static final int QUERIES_PER_STAGE = 3;
+
+    /**
+     * Timer of one stage and the frame/start of each query in flight, oldest first.
+     */
+    private static final class StageTimer {
+        final GpuTimer timer = new GpuTimer(QUERIES_PER_STAGE);
+        final long[] frames = new long[QUERIES_PER_STAGE];
+        final long[] starts = new long[QUERIES_PER_STAGE];
+        int oldest;
+        int pending;
+    }
+
+    private final FrameProfiler profiler;
+    private final StageTimer[] timers = new StageTimer[FrameProfiler.MAX_STAGES];
+    private int activeStage = -1;
+
+    public GpuProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public void begin(int stage) {
+        if (activeStage >= 0) {
+            throw new IllegalStateException("GPU stage '" + profiler.getStageName(stage)
+                + "' started inside '" + profiler.getStageName(activeStage) + "'");
+        }
+        StageTimer stageTimer = timers[stage];
+        if (stageTimer == null) {
+            stageTimer = new StageTimer();
+            timers[stage] = stageTimer;
+        }
+        if (stageTimer.pending == QUERIES_PER_STAGE) {
+            // GpuTimer reuses the oldest query; forget its frame too
+            stageTimer.oldest = (stageTimer.oldest + 1) % QUERIES_PER_STAGE;
+            stageTimer.pending--;
+        }
+        int slot = (stageTimer.oldest + stageTimer.pending) % QUERIES_PER_STAGE;
+        stageTimer.frames[slot] = profiler.getFrame();
+        stageTimer.starts[slot] = System.nanoTime();
+        stageTimer.timer.begin();
+        activeStage = stage;
+    }
+
+    public void end(int stage) {
+        if (activeStage != stage) {
+            throw new IllegalStateException("GPU stage '" + profiler.getStageName(stage) + "' is not running");
+        }
+        timers[stage].timer.end();
+        timers[stage].pending++;
+        activeStage = -1;
+    }
+
+    /**
+     * Adds every finished GPU range to the profiler. Never blocks; call once per frame.
+     */
+    public void collect() {
+        for (int stage = 0; stage < timers.length; stage++) {
+            StageTimer stageTimer = timers[stage];
+            if (stageTimer == null) continue;
+            long nanos;
+            while ((nanos = stageTimer.timer.poll()) != GpuTimer.NOT_READY) {
+                int slot = stageTimer.oldest;
+                profiler.recordGpu(stage, stageTimer.frames[slot], stageTimer.starts[slot], nanos);
+                stageTimer.oldest = (slot + 1) % QUERIES_PER_STAGE;
+                stageTimer.pending--;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (StageTimer stageTimer : timers) {
+            if (stageTimer != null) {
+                stageTimer.timer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.lab.render;
+
+import static org.lwjgl.opengl.GL33C.*;
+
+/**
+ * Measures GPU time spent on a range of GL commands with GL_TIME_ELAPSED queries.
+ *
+ * Results arrive a few frames late, so the timer keeps a small ring of query
+ * objects: begin()/end() a range every frame and poll() for the oldest
+ * finished result without stalling the pipeline. waitForResult() blocks
+ * instead, for harnesses that time one range at a time.
+ *
+ * Only one GL_TIME_ELAPSED query can be active at a time, so timed ranges
+ * from different timers must not nest.
+ */
+public class GpuTimer implements AutoCloseable {
+    private static final int DEFAULT_QUERIES = 4;
+
+    public static final long NOT_READY = -1L;
+
+    private final int[] queries;
+    private int oldest;     // index of the oldest pending query
+    private int pending;    // queries ended but not read back
+    private boolean active;
+
+    public GpuTimer() {
+        this(DEFAULT_QUERIES);
+    }
+
+    /**
+     * @param queryCount ranges that can be in flight before begin() has to drop the oldest
+     */
+    public GpuTimer(int queryCount) {
+        queries = new int[Math.max(1, queryCount)];
+        glGenQueries(queries);
+    }
+
+    /**
+     * Starts timing. If every query is still in flight, the oldest result is discarded.
+     */
+    public void begin() {
+        if (active) {
+            throw new IllegalStateException("GPU timer is already running");
+        }
+        if (pending == queries.length) {
+            // Oldest result never read; reuse its query object
+            oldest = (oldest + 1) % queries.length;
+            pending--;
+        }
+        glBeginQuery(GL_TIME_ELAPSED, queries[(oldest + pending) % queries.length]);
+        active = true;
+    }
+
+    public void end() {
+        if (!active) {
+            throw new IllegalStateException("GPU timer is not running");
+        }
+        glEndQuery(GL_TIME_ELAPSED);
+        active = false;
+        pending++;
+    }
+
+    /**
+     * Returns the GPU nanoseconds of the oldest finished range, or NOT_READY. Never blocks.
+     */
+    public long poll() {
+        if (pending == 0 || glGetQueryObjecti(queries[oldest], GL_QUERY_RESULT_AVAILABLE) == GL_FALSE) {
+            return NOT_READY;
+        }
+        return take();
+    }
+
+    /**
+     * Blocks until the oldest range finishes and returns its GPU nanoseconds, or NOT_READY if none is pending.
+     */
+    public long waitForResult() {
+        if (pending == 0) {
+            return NOT_READY;
+        }
+        return take();
+    }
+
+    private long take() {
+        long nanos = glGetQueryObjecti64(queries[oldest], GL_QUERY_RESULT);
+        oldest = (oldest + 1) % queries.length;
+        pending--;
+        return nanos;
+    }
+
+    @Override
+    public void close() {
+        glDeleteQueries(queries);
+    }
+}
@@ -0,0 +1,279 @@
+package org.lab.render;
+
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+/**
+ * Low-resolution software depth buffer with a hierarchical-Z (max) pyramid.
+ *
+ * Occluders are rasterized on the CPU as convex quads. Rasterization is
+ * conservative: a texel is only written when an occluder covers all of it,
+ * and it keeps the farthest view depth (clip-space w) that occluder has over
+ * the texel, or the nearest such depth when several occluders cover it.
+ * After buildPyramid(),
+ * every coarser level stores the farthest depth of the four texels below it,
+ * so a whole screen rectangle can be tested against a handful of texels:
+ * a box is occluded if its nearest point is behind the farthest occluder
+ * depth everywhere it covers.
+ *
+ * Pure Java with no GL calls, so it can run on any thread and in headless tests.
+ * Not thread-safe; each instance must be used by one thread at a time.
+ */
+public class HiZBuffer {
+    // Points this close to (or behind) the eye cannot be projected reliably
+    private static final float MIN_W = 1.0e-3f;
+
+    // Occludee rectangles are tested at the first level where they span at most this many texels
+    private static final int MAX_TEST_TEXELS = 4;
+
+    private final int width;
+    private final int height;
+    private final float[][] levels;
+    private final int[] levelWidths;
+    private final int[] levelHeights;
+
+    // Scratch for projected vertices: screen x, screen y, w
+    private final float[] projected = new float[3 * 8];
+
+    // Scratch for rasterization: which texel corners of two adjacent rows lie inside the quad
+    private boolean[] cornersInside;
+    private boolean[] nextCornersInside;
+
+    public HiZBuffer(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid HiZ buffer size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+
+        int levelCount = 1;
+        for (int w = width, h = height; w > 1 || h > 1; w = (w + 1) / 2, h = (h + 1) / 2) {
+            levelCount++;
+        }
+        levels = new float[levelCount][];
+        levelWidths = new int[levelCount];
+        levelHeights = new int[levelCount];
+        for (int i = 0, w = width, h = height; i < levelCount; i++, w = (w + 1) / 2, h = (h + 1) / 2) {
+            levels[i] = new float[w * h];
+            levelWidths[i] = w;
+            levelHeights[i] = h;
+        }
+        cornersInside = new boolean[width + 1];
+        nextCornersInside = new boolean[width + 1];
+        clear();
+    }
+
+    /**
+     * Resets every pixel to infinitely far away.
+     */
+    public void clear() {
+        Arrays.fill(levels[0], Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Rasterizes a planar convex quad (4 corners, 12 floats in winding order) as an occluder.
+     * Quads touching or crossing the near plane are skipped; dropping an occluder
+     * only makes culling less aggressive, never wrong.
+     */
+    public void rasterizeQuad(Matrix4f viewProjection, float[] corners) {
+        for (int i = 0; i < 4; i++) {
+            if (!project(viewProjection, corners[i * 3], corners[i * 3 + 1], corners[i * 3 + 2], i)) {
+                return;
+            }
+        }
+        rasterizeProjectedQuad();
+    }
+
+    /**
+     * Computes the max-depth pyramid from the rasterized occluders.
+     */
+    public void buildPyramid() {
+        for (int level = 1; level < levels.length; level++) {
+            float[] src = levels[level - 1];
+            float[] dst = levels[level];
+            int srcW = levelWidths[level - 1];
+            int srcH = levelHeights[level - 1];
+            int dstW = levelWidths[level];
+            int dstH = levelHeights[level];
+
+            for (int y = 0; y < dstH; y++) {
+                int sy0 = y * 2;
+                int sy1 = Math.min(sy0 + 1, srcH - 1);
+                for (int x = 0; x < dstW; x++) {
+                    int sx0 = x * 2;
+                    int sx1 = Math.min(sx0 + 1, srcW - 1);
+                    float a = Math.max(src[sy0 * srcW + sx0], src[sy0 * srcW + sx1]);
+                    float b = Math.max(src[sy1 * srcW + sx0], src[sy1 * srcW + sx1]);
+                    dst[y * dstW + x] = Math.max(a, b);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the box is entirely hidden behind rasterized occluders.
+     * Boxes that cross the near plane or reach past the screen edge are never reported occluded.
+     * buildPyramid() must have been called after the last occluder was drawn.
+     */
+    public boolean isOccluded(Matrix4f viewProjection,
+                              float minX, float minY, float minZ,
+                              float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < 8; i++) {
+            float x = (i & 1) == 0 ? minX : maxX;
+            float y = (i & 2) == 0 ? minY : maxY;
+            float z = (i & 4) == 0 ? minZ : maxZ;
+            if (!project(viewProjection, x, y, z, i)) {
+                return false;
+            }
+        }
+
+        float rectMinX = Float.POSITIVE_INFINITY, rectMinY = Float.POSITIVE_INFINITY;
+        float rectMaxX = Float.NEGATIVE_INFINITY, rectMaxY = Float.NEGATIVE_INFINITY;
+        float nearest = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < 8; i++) {
+            rectMinX = Math.min(rectMinX, projected[i * 3]);
+            rectMaxX = Math.max(rectMaxX, projected[i * 3]);
+            rectMinY = Math.min(rectMinY, projected[i * 3 + 1]);
+            rectMaxY = Math.max(rectMaxY, projected[i * 3 + 1]);
+            nearest = Math.min(nearest, projected[i * 3 + 2]);
+        }
+
+        int x0 = (int) Math.floor(rectMinX);
+        int y0 = (int) Math.floor(rectMinY);
+        int x1 = (int) Math.floor(rectMaxX);
+        int y1 = (int) Math.floor(rectMaxY);
+        if (x0 < 0 || y0 < 0 || x1 >= width || y1 >= height) {
+            // Partly or fully off screen: occluders there were never drawn, so the
+            // box could show up as soon as the camera turns. Leave it to frustum culling.
+            return false;
+        }
+
+        int level = 0;
+        while (level < levels.length - 1
+            && ((x1 >> level) - (x0 >> level) >= MAX_TEST_TEXELS
+            || (y1 >> level) - (y0 >> level) >= MAX_TEST_TEXELS)) {
+            level++;
+        }
+
+        float[] depth = levels[level];
+        int levelWidth = levelWidths[level];
+        for (int ty = y0 >> level; ty <= y1 >> level; ty++) {
+            for (int tx = x0 >> level; tx <= x1 >> level; tx++) {
+                if (depth[ty * levelWidth + tx] >= nearest) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Projects a world-space point into slot i of the scratch array.
+     * Returns false if the point is at or behind the eye.
+     */
+    private boolean project(Matrix4f m, float x, float y, float z, int i) {
+        float w = m.m03() * x + m.m13() * y + m.m23() * z + m.m33();
+        if (w < MIN_W) {
+            return false;
+        }
+        float cx = m.m00() * x + m.m10() * y + m.m20() * z + m.m30();
+        float cy = m.m01() * x + m.m11() * y + m.m21() * z + m.m31();
+        projected[i * 3] = (cx / w * 0.5f + 0.5f) * width;
+        projected[i * 3 + 1] = (cy / w * 0.5f + 0.5f) * height;
+        projected[i * 3 + 2] = w;
+        return true;
+    }
+
+    /**
+     * Rasterizes the projected quad in slots 0-3 into level 0, writing only texels
+     * whose four corners all lie inside it. Drawing the quad as one polygon rather
+     * than two triangles leaves no uncovered texels along its diagonal.
+     * 1/w is affine in screen space across a plane, so its smallest value over a
+     * texel, i.e. the farthest depth, is found at one of the texel's corners.
+     */
+    private void rasterizeProjectedQuad() {
+        float minPx = Float.POSITIVE_INFINITY, minPy = Float.POSITIVE_INFINITY;
+        float maxPx = Float.NEGATIVE_INFINITY, maxPy = Float.NEGATIVE_INFINITY;
+        float area = 0.0f;
+        for (int i = 0; i < 4; i++) {
+            int j = (i + 1) & 3;
+            float x = projected[i * 3], y = projected[i * 3 + 1];
+            area += x * projected[j * 3 + 1] - projected[j * 3] * y;
+            minPx = Math.min(minPx, x);
+            maxPx = Math.max(maxPx, x);
+            minPy = Math.min(minPy, y);
+            maxPy = Math.max(maxPy, y);
+        }
+        if (area == 0.0f) return;
+        float orientation = area > 0.0f ? 1.0f : -1.0f;
+
+        // Fit 1/w = a*x + b*y + c through three of the corners
+        float x0 = projected[0], y0 = projected[1], invW0 = 1.0f / projected[2];
+        float dx1 = projected[3] - x0, dy1 = projected[4] - y0, dInvW1 = 1.0f / projected[5] - invW0;
+        float dx2 = projected[6] - x0, dy2 = projected[7] - y0, dInvW2 = 1.0f / projected[8] - invW0;
+        float det = dx1 * dy2 - dy1 * dx2;
+        if (det == 0.0f) return;
+        float a = (dInvW1 * dy2 - dInvW2 * dy1) / det;
+        float b = (dInvW2 * dx1 - dInvW1 * dx2) / det;
+        float c = invW0 - a * x0 - b * y0;
+        // Offset from a texel's lower-left corner to the corner where 1/w is smallest
+        float farthestCorner = Math.min(a, 0.0f) + Math.min(b, 0.0f);
+
+        // Texels lying wholly inside the quad's bounding box
+        int minX = Math.max(0, (int) Math.ceil(minPx));
+        int maxX = Math.min(width, (int) Math.floor(maxPx)) - 1;
+        int minY = Math.max(0, (int) Math.ceil(minPy));
+        int maxY = Math.min(height, (int) Math.floor(maxPy)) - 1;
+        if (minX > maxX || minY > maxY) return;
+
+        float[] depth = levels[0];
+        findCornersInside(minX, maxX + 1, minY, orientation, cornersInside);
+        for (int y = minY; y <= maxY; y++) {
+            findCornersInside(minX, maxX + 1, y + 1, orientation, nextCornersInside);
+            for (int x = minX; x <= maxX; x++) {
+                if (!cornersInside[x] || !cornersInside[x + 1]
+                    || !nextCornersInside[x] || !nextCornersInside[x + 1]) {
+                    continue;
+                }
+                float invW = a * x + b * y + c + farthestCorner;
+                if (invW <= 0.0f) continue;
+
+                float w = 1.0f / invW;
+                int index = y * width + x;
+                if (w < depth[index]) {
+                    depth[index] = w;
+                }
+            }
+            boolean[] swap = cornersInside;
+            cornersInside = nextCornersInside;
+            nextCornersInside = swap;
+        }
+    }
+
+    /**
+     * Marks which texel corners (x, y) for x in [minX, maxX] lie inside or on the
+     * projected quad, whose signed area has the given sign.
+     */
+    private void findCornersInside(int minX, int maxX, int y, float orientation, boolean[] inside) {
+        for (int x = minX; x <= maxX; x++) {
+            boolean in = true;
+            for (int i = 0; i < 4 && in; i++) {
+                int j = (i + 1) & 3;
+                float ex = projected[j * 3] - projected[i * 3];
+                float ey = projected[j * 3 + 1] - projected[i * 3 + 1];
+                float edge = ex * (y - projected[i * 3 + 1]) - ey * (x - projected[i * 3]);
+                in = edge * orientation >= 0.0f;
+            }
+            inside[x] = in;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
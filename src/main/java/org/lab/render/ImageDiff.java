@@ -0,0 +1,83 @@
+package org.lab.render;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compares two RGBA8 images of the same size, for rendering regression tests.
+ *
+ * Software rasterizers and drivers differ slightly in filtering and rounding,
+ * so a pixel only counts as different when one of its channels differs by more
+ * than a tolerance, and an image only fails when more than a given share of
+ * its pixels differ.
+ */
+public final class ImageDiff {
+
+    /**
+     * Outcome of one comparison.
+     */
+    public static final class Result {
+        public final int differentPixels;
+        public final int totalPixels;
+        public final int maxChannelDelta;
+
+        Result(int differentPixels, int totalPixels, int maxChannelDelta) {
+            this.differentPixels = differentPixels;
+            this.totalPixels = totalPixels;
+            this.maxChannelDelta = maxChannelDelta;
+        }
+
+        /**
+         * Returns the share of pixels that differ (0 to 1).
+         */
+        public float getDifferentRatio() {
+            return totalPixels == 0 ? 0.0f : (float) differentPixels / totalPixels;
+        }
+
+        /**
+         * Returns true if at most maxDifferentRatio of the pixels differ.
+         */
+        public boolean matches(float maxDifferentRatio) {
+            return getDifferentRatio() <= maxDifferentRatio;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d pixels differ (%.3f%%), max channel delta %d",
+                differentPixels, totalPixels, getDifferentRatio() * 100.0f, maxChannelDelta);
+        }
+    }
+
+    private ImageDiff() {
+    }
+
+    /**
+     * Compares two RGBA8 images from their current positions.
+     *
+     * @param tolerance largest per-channel difference that still counts as equal
+     */
+    public static Result compare(ByteBuffer expected, ByteBuffer actual, int width, int height, int tolerance) {
+        int pixelCount = width * height;
+        if (expected.remaining() < pixelCount * 4 || actual.remaining() < pixelCount * 4) {
+            throw new IllegalArgumentException("Images are smaller than " + width + "x" + height);
+        }
+
+        int expectedBase = expected.position();
+        int actualBase = actual.position();
+        int different = 0;
+        int maxDelta = 0;
+        for (int pixel = 0; pixel < pixelCount; pixel++) {
+            int pixelDelta = 0;
+            for (int channel = 0; channel < 4; channel++) {
+                int offset = pixel * 4 + channel;
+                int a = expected.get(expectedBase + offset) & 0xFF;
+                int b = actual.get(actualBase + offset) & 0xFF;
+                pixelDelta = Math.max(pixelDelta, Math.abs(a - b));
+            }
+            if (pixelDelta > tolerance) {
+                different++;
+            }
+            maxDelta = Math.max(maxDelta, pixelDelta);
+        }
+        return new Result(different, pixelCount, maxDelta);
+    }
+}
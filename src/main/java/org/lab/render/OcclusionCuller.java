@@ -0,0 +1,402 @@
+package org.lab.render;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lab.world.Chunk;
+import org.lab.world.LongIntHashMap;
+import org.lab.world.World;
+import org.lab.world.WorldListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Software occlusion culling of whole chunks.
+ *
+ * Occluders are the fully solid layers of each chunk: for every axis, the
+ * outermost 16x16 slices whose voxels are all filled (a grass floor, the faces
+ * of a solid chunk). Their mid-planes are rasterized into a low-resolution
+ * HiZBuffer, then every chunk's bounding box is tested against the pyramid.
+ *
+ * update() runs on the render thread: it refreshes occluder data for chunks
+ * edited since the last frame (register the culler as a WorldListener), copies
+ * the chunk list and camera, and hands them to a background thread. Results
+ * are published when the pass finishes and used from the next frame on, so
+ * visibility lags the camera by a frame or two. Chunks the latest pass did
+ * not see are reported visible.
+ *
+ * So that the lag does not pop chunks into view, each chunk box is tested
+ * grown by MAX_CAMERA_DRIFT blocks, and a pass is ignored (everything
+ * visible) once the camera is further than that from where the pass was
+ * taken. Turning in place is safe: HiZBuffer never hides a box that reaches
+ * past the screen edge, and occlusion seen from one eye position does not
+ * depend on the view direction.
+ *
+ * cullNow() does the same pass synchronously, for headless use and tests.
+ */
+public class OcclusionCuller implements WorldListener, AutoCloseable {
+    public static final int DEFAULT_WIDTH = 128;
+    public static final int DEFAULT_HEIGHT = 72;
+
+    private static final int NOT_COMPUTED = -1;
+    private static final int VISIBLE = 1;
+    private static final int OCCLUDED = 2;
+
+    // Packed occluder layers per axis: 4 bits min layer, 4 bits max layer, 1 valid bit
+    private static final int AXIS_BITS = 9;
+    private static final int VALID_BIT = 8;
+    private static final int LAYER_AREA = Chunk.SIZE * Chunk.SIZE;
+
+    private static final float HALF_BLOCK = 0.5f;
+
+    // Camera movement, in blocks, that results of an older pass still cover
+    static final float MAX_CAMERA_DRIFT = 1.0f;
+
+    /**
+     * Inputs and results of one culling pass.
+     */
+    private static final class Job {
+        final Matrix4f viewProjection = new Matrix4f();
+        final Vector3f eye = new Vector3f();
+        long[] keys = new long[256];
+        int[] occluders = new int[256];
+        int count;
+        final LongIntHashMap states = new LongIntHashMap(0);
+        int occludedCount;
+    }
+
+    private final HiZBuffer depth;
+    private final float[] quad = new float[12];
+    private final LongIntHashMap occluderCache = new LongIntHashMap(NOT_COMPUTED);
+    // Occluders of the chunks in the running pass, for finding neighbors that share a layer
+    private final LongIntHashMap passOccluders = new LongIntHashMap(0);
+
+    // One job is published for reading while the other is filled and processed
+    private final Job[] jobs = {new Job(), new Job()};
+    private volatile Job published;
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final ExecutorService worker;
+
+    // Latest camera position given to update(), cullNow() or setCamera()
+    private final Vector3f cameraEye = new Vector3f();
+
+    public OcclusionCuller() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    public OcclusionCuller(int width, int height) {
+        this.depth = new HiZBuffer(width, height);
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "occlusion-culler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void blockChanged(int x, int y, int z, int previousType, int newType) {
+        occluderCache.remove(World.packCoord(Chunk.toChunk(x), Chunk.toChunk(y), Chunk.toChunk(z)));
+    }
+
+    /**
+     * Starts a culling pass in the background for the current camera, unless the
+     * previous pass is still running. Must be called on the thread that edits the world.
+     *
+     * @return true if a new pass was started
+     */
+    public boolean update(World world, Matrix4f viewProjection) {
+        setCamera(viewProjection);
+        if (!busy.compareAndSet(false, true)) {
+            return false;
+        }
+        Job job = prepare(world, viewProjection);
+        worker.execute(() -> {
+            try {
+                run(job);
+                published = job;
+            } finally {
+                busy.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Runs a culling pass on the calling thread and publishes its results.
+     * Waits for any background pass to finish first.
+     */
+    public void cullNow(World world, Matrix4f viewProjection) {
+        setCamera(viewProjection);
+        while (!busy.compareAndSet(false, true)) {
+            LockSupport.parkNanos(100_000);
+        }
+        try {
+            Job job = prepare(world, viewProjection);
+            run(job);
+            published = job;
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    /**
+     * Records the camera of the current frame without starting a pass.
+     * update() and cullNow() do this too.
+     */
+    public void setCamera(Matrix4f viewProjection) {
+        viewProjection.origin(cameraEye);
+    }
+
+    /**
+     * Returns false only if the latest finished pass found the chunk hidden
+     * and the camera has not drifted too far from where that pass was taken.
+     */
+    public boolean isChunkVisible(int chunkX, int chunkY, int chunkZ) {
+        Job job = usableJob();
+        return job == null || job.states.get(World.packCoord(chunkX, chunkY, chunkZ)) != OCCLUDED;
+    }
+
+    /**
+     * Returns the number of chunks reported hidden, i.e. found hidden by the
+     * latest finished pass unless the camera has since drifted away from it.
+     */
+    public int getOccludedCount() {
+        Job job = usableJob();
+        return job != null ? job.occludedCount : 0;
+    }
+
+    /**
+     * Returns the latest finished pass, or null if there is none or its camera is too far away.
+     */
+    private Job usableJob() {
+        Job job = published;
+        if (job == null || job.eye.distanceSquared(cameraEye) > MAX_CAMERA_DRIFT * MAX_CAMERA_DRIFT) {
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * Copies the camera and chunk list into the job that is not currently published.
+     */
+    private Job prepare(World world, Matrix4f viewProjection) {
+        Job job = published == jobs[0] ? jobs[1] : jobs[0];
+        job.viewProjection.set(viewProjection);
+        viewProjection.origin(job.eye);
+
+        List<Chunk> chunks = world.getChunks();
+        int count = chunks.size();
+        if (job.keys.length < count) {
+            job.keys = new long[count];
+            job.occluders = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            Chunk chunk = chunks.get(i);
+            long key = World.packCoord(chunk.getChunkX(), chunk.getChunkY(), chunk.getChunkZ());
+            int occluders = occluderCache.get(key);
+            if (occluders == NOT_COMPUTED) {
+                occluders = computeOccluders(chunk);
+                occluderCache.put(key, occluders);
+            }
+            job.keys[i] = key;
+            job.occluders[i] = occluders;
+        }
+        job.count = count;
+        return job;
+    }
+
+    /**
+     * Rasterizes every occluder, then tests every chunk box against the pyramid.
+     */
+    private void run(Job job) {
+        Matrix4f viewProjection = job.viewProjection;
+        passOccluders.clear();
+        for (int i = 0; i < job.count; i++) {
+            if (job.occluders[i] != 0) {
+                passOccluders.put(job.keys[i], job.occluders[i]);
+            }
+        }
+
+        depth.clear();
+        for (int i = 0; i < job.count; i++) {
+            int occluders = job.occluders[i];
+            if (occluders == 0) continue;
+
+            long key = job.keys[i];
+            for (int axis = 0; axis < 3; axis++) {
+                int bits = occluders >>> (axis * AXIS_BITS);
+                if ((bits & (1 << VALID_BIT)) == 0) continue;
+
+                int minLayer = bits & 0xF;
+                int maxLayer = (bits >>> 4) & 0xF;
+                rasterizeLayer(viewProjection, axis, minLayer, key);
+                if (maxLayer != minLayer) {
+                    rasterizeLayer(viewProjection, axis, maxLayer, key);
+                }
+            }
+        }
+        depth.buildPyramid();
+
+        job.states.clear();
+        job.occludedCount = 0;
+        // Grown boxes keep the results valid while the camera stays within MAX_CAMERA_DRIFT
+        float margin = HALF_BLOCK + MAX_CAMERA_DRIFT;
+        float size = Chunk.SIZE + 2 * MAX_CAMERA_DRIFT;
+        for (int i = 0; i < job.count; i++) {
+            long key = job.keys[i];
+            float minX = (World.unpackX(key) << Chunk.SHIFT) - margin;
+            float minY = (World.unpackY(key) << Chunk.SHIFT) - margin;
+            float minZ = (World.unpackZ(key) << Chunk.SHIFT) - margin;
+            boolean occluded = depth.isOccluded(viewProjection, minX, minY, minZ,
+                minX + size, minY + size, minZ + size);
+            job.states.put(key, occluded ? OCCLUDED : VISIBLE);
+            if (occluded) {
+                job.occludedCount++;
+            }
+        }
+    }
+
+    /**
+     * Rasterizes the mid-plane of one solid layer, spanning the whole chunk face.
+     *
+     * HiZBuffer only writes texels an occluder covers entirely, so the texels on
+     * the seam between two chunks would be left empty. Where the next chunk along
+     * an in-plane axis has the same solid layer, the quad is stretched over it.
+     */
+    private void rasterizeLayer(Matrix4f viewProjection, int axis, int layer, long key) {
+        int chunkX = World.unpackX(key);
+        int chunkY = World.unpackY(key);
+        int chunkZ = World.unpackZ(key);
+        // In-plane axes u and v: (y, z) for an X layer, (x, z) for Y, (x, y) for Z
+        int u = axis == 0 ? 1 : 0;
+        int v = axis == 2 ? 1 : 2;
+        boolean nextU = hasLayer(axis, layer, chunkX, chunkY, chunkZ, u, -1);
+        boolean nextV = hasLayer(axis, layer, chunkX, chunkY, chunkZ, v, -1);
+
+        int baseX = chunkX << Chunk.SHIFT;
+        int baseY = chunkY << Chunk.SHIFT;
+        int baseZ = chunkZ << Chunk.SHIFT;
+        if (nextU && nextV && hasLayer(axis, layer, chunkX, chunkY, chunkZ, u, v)) {
+            rasterizeLayer(viewProjection, axis, layer, baseX, baseY, baseZ, Chunk.SIZE, Chunk.SIZE);
+            return;
+        }
+        rasterizeLayer(viewProjection, axis, layer, baseX, baseY, baseZ, nextU ? Chunk.SIZE : 0, 0);
+        if (nextV) {
+            rasterizeLayer(viewProjection, axis, layer, baseX, baseY, baseZ, 0, Chunk.SIZE);
+        }
+    }
+
+    /**
+     * Returns true if the chunk one step along in-plane axis a (and b, unless -1)
+     * has the given layer among its occluders in the current pass.
+     */
+    private boolean hasLayer(int axis, int layer, int chunkX, int chunkY, int chunkZ, int a, int b) {
+        int x = chunkX + (a == 0 || b == 0 ? 1 : 0);
+        int y = chunkY + (a == 1 || b == 1 ? 1 : 0);
+        int z = chunkZ + (a == 2 || b == 2 ? 1 : 0);
+        int bits = passOccluders.get(World.packCoord(x, y, z)) >>> (axis * AXIS_BITS);
+        return (bits & (1 << VALID_BIT)) != 0
+            && ((bits & 0xF) == layer || ((bits >>> 4) & 0xF) == layer);
+    }
+
+    /**
+     * Rasterizes the mid-plane of one layer, stretched by extendU/extendV blocks
+     * along its in-plane axes.
+     */
+    private void rasterizeLayer(Matrix4f viewProjection, int axis, int layer, int baseX, int baseY, int baseZ,
+                                int extendU, int extendV) {
+        float lo = -HALF_BLOCK;
+        float hiU = Chunk.SIZE - HALF_BLOCK + extendU;
+        float hiV = Chunk.SIZE - HALF_BLOCK + extendV;
+        float[] q = quad;
+        switch (axis) {
+            case 0 -> { // X layer: quad in the YZ plane
+                float x = baseX + layer;
+                set(q, 0, x, baseY + lo, baseZ + lo);
+                set(q, 1, x, baseY + hiU, baseZ + lo);
+                set(q, 2, x, baseY + hiU, baseZ + hiV);
+                set(q, 3, x, baseY + lo, baseZ + hiV);
+            }
+            case 1 -> { // Y layer: quad in the XZ plane
+                float y = baseY + layer;
+                set(q, 0, baseX + lo, y, baseZ + lo);
+                set(q, 1, baseX + hiU, y, baseZ + lo);
+                set(q, 2, baseX + hiU, y, baseZ + hiV);
+                set(q, 3, baseX + lo, y, baseZ + hiV);
+            }
+            default -> { // Z layer: quad in the XY plane
+                float z = baseZ + layer;
+                set(q, 0, baseX + lo, baseY + lo, z);
+                set(q, 1, baseX + hiU, baseY + lo, z);
+                set(q, 2, baseX + hiU, baseY + hiV, z);
+                set(q, 3, baseX + lo, baseY + hiV, z);
+            }
+        }
+        depth.rasterizeQuad(viewProjection, q);
+    }
+
+    private static void set(float[] quad, int corner, float x, float y, float z) {
+        quad[corner * 3] = x;
+        quad[corner * 3 + 1] = y;
+        quad[corner * 3 + 2] = z;
+    }
+
+    /**
+     * Finds the outermost fully solid layers of a chunk along each axis.
+     *
+     * @return packed layers (see AXIS_BITS), or 0 if the chunk has no solid layer
+     */
+    static int computeOccluders(Chunk chunk) {
+        if (chunk.getBlockCount() < LAYER_AREA) {
+            return 0;
+        }
+
+        int[] counts = new int[3 * Chunk.SIZE];
+        if (chunk.getBlockCount() == Chunk.VOLUME) {
+            Arrays.fill(counts, LAYER_AREA);
+        } else {
+            for (int ly = 0; ly < Chunk.SIZE; ly++) {
+                for (int lz = 0; lz < Chunk.SIZE; lz++) {
+                    for (int lx = 0; lx < Chunk.SIZE; lx++) {
+                        if (chunk.get(lx, ly, lz) != Chunk.AIR) {
+                            counts[lx]++;
+                            counts[Chunk.SIZE + ly]++;
+                            counts[2 * Chunk.SIZE + lz]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        int packed = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            int min = -1;
+            int max = -1;
+            for (int layer = 0; layer < Chunk.SIZE; layer++) {
+                if (counts[axis * Chunk.SIZE + layer] == LAYER_AREA) {
+                    if (min < 0) min = layer;
+                    max = layer;
+                }
+            }
+            if (min >= 0) {
+                packed |= (min | max << 4 | 1 << VALID_BIT) << (axis * AXIS_BITS);
+            }
+        }
+        return packed;
+    }
+
+    @Override
+    public void close() {
+        worker.shutdownNow();
+        try {
+            worker.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.lab.render;
+
+import org.lwjgl.glfw.GLFWErrorCallback;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL33C.*;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+/**
+ * OpenGL 3.3 context with no visible window, rendering into a framebuffer object.
+ *
+ * For machines without a GPU or display, the OSMESA and EGL backends start
+ * GLFW on its null platform and create the context through OSMesa or EGL
+ * (Mesa's llvmpipe software rasterizer when no GPU is present). NATIVE uses
+ * the normal platform with a hidden window, for running the same code on a
+ * desktop.
+ *
+ * Rendering goes into an RGBA8 color + 24-bit depth FBO of a fixed size, so
+ * the result does not depend on a window surface; readPixels() copies it back
+ * top row first.
+ */
+public class OffscreenContext implements AutoCloseable {
+
+    public enum Backend {
+        NATIVE, EGL, OSMESA
+    }
+
+    private final int width;
+    private final int height;
+    private final long window;
+    private final int framebuffer;
+    private final int colorBuffer;
+    private final int depthBuffer;
+    private final ByteBuffer pixels;
+    private final ByteBuffer rowScratch;
+
+    public OffscreenContext(int width, int height, Backend backend) {
+        this.width = width;
+        this.height = height;
+
+        GLFWErrorCallback.createPrint(System.err).set();
+        if (backend != Backend.NATIVE) {
+            glfwInitHint(GLFW_PLATFORM, GLFW_PLATFORM_NULL);
+        }
+        if (!glfwInit()) {
+            throw new RuntimeException("Failed to initialize GLFW for backend " + backend);
+        }
+
+        glfwDefaultWindowHints();
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+        glfwWindowHint(GLFW_OPENGL_FORWARD_COMPAT, GLFW_TRUE);
+        glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE);
+        switch (backend) {
+            case EGL -> glfwWindowHint(GLFW_CONTEXT_CREATION_API, GLFW_EGL_CONTEXT_API);
+            case OSMESA -> glfwWindowHint(GLFW_CONTEXT_CREATION_API, GLFW_OSMESA_CONTEXT_API);
+            case NATIVE -> { }
+        }
+
+        window = glfwCreateWindow(width, height, "offscreen", NULL, NULL);
+        if (window == NULL) {
+            glfwTerminate();
+            throw new RuntimeException("Failed to create an offscreen " + backend + " context");
+        }
+        glfwMakeContextCurrent(window);
+        GL.createCapabilities();
+
+        framebuffer = glGenFramebuffers();
+        glBindFramebuffer(GL_FRAMEBUFFER, framebuffer);
+
+        colorBuffer = glGenRenderbuffers();
+        glBindRenderbuffer(GL_RENDERBUFFER, colorBuffer);
+        glRenderbufferStorage(GL_RENDERBUFFER, GL_RGBA8, width, height);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_RENDERBUFFER, colorBuffer);
+
+        depthBuffer = glGenRenderbuffers();
+        glBindRenderbuffer(GL_RENDERBUFFER, depthBuffer);
+        glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH_COMPONENT24, width, height);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_RENDERBUFFER, depthBuffer);
+        glBindRenderbuffer(GL_RENDERBUFFER, 0);
+
+        int status = glCheckFramebufferStatus(GL_FRAMEBUFFER);
+        if (status != GL_FRAMEBUFFER_COMPLETE) {
+            close();
+            throw new RuntimeException("Offscreen framebuffer incomplete: 0x" + Integer.toHexString(status));
+        }
+        glViewport(0, 0, width, height);
+
+        pixels = MemoryUtil.memAlloc(width * height * 4);
+        rowScratch = MemoryUtil.memAlloc(width * 4);
+    }
+
+    /**
+     * Makes the offscreen framebuffer the render target.
+     */
+    public void bind() {
+        glBindFramebuffer(GL_FRAMEBUFFER, framebuffer);
+        glViewport(0, 0, width, height);
+    }
+
+    /**
+     * Waits for rendering to finish and returns the framebuffer as RGBA bytes, top row first.
+     * The returned buffer is reused by the next call.
+     */
+    public ByteBuffer readPixels() {
+        glBindFramebuffer(GL_READ_FRAMEBUFFER, framebuffer);
+        glPixelStorei(GL_PACK_ALIGNMENT, 1);
+        pixels.clear();
+        glReadPixels(0, 0, width, height, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+
+        // GL returns the bottom row first
+        int stride = width * 4;
+        long base = MemoryUtil.memAddress(pixels);
+        long scratch = MemoryUtil.memAddress(rowScratch);
+        for (int top = 0, bottom = height - 1; top < bottom; top++, bottom--) {
+            long topRow = base + (long) top * stride;
+            long bottomRow = base + (long) bottom * stride;
+            MemoryUtil.memCopy(topRow, scratch, stride);
+            MemoryUtil.memCopy(bottomRow, topRow, stride);
+            MemoryUtil.memCopy(scratch, bottomRow, stride);
+        }
+        return pixels;
+    }
+
+    /**
+     * Returns the GL_RENDERER string, e.g. "llvmpipe (LLVM 15.0.7, 256 bits)".
+     */
+    public String getRenderer() {
+        return glGetString(GL_RENDERER);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void close() {
+        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+        glDeleteFramebuffers(framebuffer);
+        glDeleteRenderbuffers(colorBuffer);
+        glDeleteRenderbuffers(depthBuffer);
+        if (pixels != null) {
+            MemoryUtil.memFree(pixels);
+            MemoryUtil.memFree(rowScratch);
+        }
+
+        GL.setCapabilities(null);
+        glfwDestroyWindow(window);
+        glfwTerminate();
+        GLFWErrorCallback callback = glfwSetErrorCallback(null);
+        if (callback != null) {
+            callback.free();
+        }
+    }
+}
@@ -62,6 +62,24 @@ public class VAO implements AutoCloseable {
         glVertexAttribDivisor(location, 1);
     }
 
+    /**
+     * Configures an integer vertex attribute pointer for per-instance data.
+     * Unlike linkInstancedAttribute, values reach the shader as ints (ivec/uvec)
+     * without conversion to float, so compact integer formats can be decoded there.
+     * The VBO must be bound before calling this method.
+     *
+     * @param location shader attribute location
+     * @param size     number of components (1, 2, 3, or 4)
+     * @param type     integer data type (GL_BYTE, GL_UNSIGNED_BYTE, GL_SHORT, GL_INT, etc.)
+     * @param stride   byte stride between consecutive attributes
+     * @param offset   byte offset of the first component
+     */
+    public void linkInstancedIntegerAttribute(int location, int size, int type, int stride, long offset) {
+        glVertexAttribIPointer(location, size, type, stride, offset);
+        glEnableVertexAttribArray(location);
+        glVertexAttribDivisor(location, 1);
+    }
+
     /**
      * Disables a vertex attribute.
      */
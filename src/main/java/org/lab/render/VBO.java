@@ -1,20 +1,51 @@
 package org.lab.render;
 
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
 import org.lwjgl.system.MemoryUtil;
 
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 
 import static org.lwjgl.opengl.GL33C.*;
+import static org.lwjgl.opengl.GL44C.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44C.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.GL44C.glBufferStorage;
 
 /**
  * Vertex Buffer Object (VBO) wrapper.
  * Stores vertex data (positions, UVs, normals, etc.) on the GPU.
+ *
+ * Streaming mode (allocateStreaming) is for data rewritten every frame. With
+ * GL 4.4 or ARB_buffer_storage the buffer is persistently mapped and split
+ * into three regions, used round-robin: the CPU writes straight into the
+ * mapped region while the GPU may still read the other two, and a fence per
+ * region keeps the CPU from overwriting data a draw has not consumed yet.
+ * On GL 3.3 the buffer is orphaned with glBufferData(null) each frame and
+ * filled from a CPU staging buffer, letting the driver do the multi-buffering.
+ *
+ * Per frame: beginStreamWrite(), fill the returned buffer from position 0,
+ * endStreamWrite(bytes) to get the byte offset of the data in the buffer,
+ * draw, then fenceStream().
  */
 public class VBO implements AutoCloseable {
+    private static final int STREAM_REGIONS = 3;
+    private static final long FENCE_WAIT_NANOS = 1_000_000L;
+
     private final int id;
     private final int target;
 
+    // Streaming mode state
+    private boolean streaming;
+    private boolean persistent;
+    private long regionBytes;
+    private ByteBuffer[] regions;   // persistent: slices of the mapping
+    private final long[] fences = new long[STREAM_REGIONS];
+    private ByteBuffer staging;     // orphaning fallback
+    private int region;
+    private int streamStalls;
+
     /**
      * Creates a VBO with the specified target (GL_ARRAY_BUFFER or GL_ELEMENT_ARRAY_BUFFER).
      */
@@ -103,6 +134,146 @@ public class VBO implements AutoCloseable {
         glBufferSubData(target, offsetInBytes, buffer);
     }
 
+    /**
+     * Updates a portion of the buffer with a ByteBuffer.
+     * @param offsetInBytes byte offset into the buffer
+     * @param buffer ByteBuffer with data (must be flipped)
+     */
+    public void updateSubData(long offsetInBytes, ByteBuffer buffer) {
+        glBufferSubData(target, offsetInBytes, buffer);
+    }
+
+    /**
+     * Updates a portion of the buffer with an IntBuffer.
+     * @param offsetInBytes byte offset into the buffer
+     * @param buffer IntBuffer with data (must be flipped)
+     */
+    public void updateSubData(long offsetInBytes, IntBuffer buffer) {
+        glBufferSubData(target, offsetInBytes, buffer);
+    }
+
+    /**
+     * Copies a range of another buffer into this one on the GPU, without a CPU round trip.
+     * Both buffers must have been allocated.
+     * @param source buffer to read from
+     * @param readOffset byte offset into the source
+     * @param writeOffset byte offset into this buffer
+     * @param sizeInBytes number of bytes to copy
+     */
+    public void copySubData(VBO source, long readOffset, long writeOffset, long sizeInBytes) {
+        glBindBuffer(GL_COPY_READ_BUFFER, source.id);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, id);
+        glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, readOffset, writeOffset, sizeInBytes);
+        glBindBuffer(GL_COPY_READ_BUFFER, 0);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+    }
+
+    /**
+     * Turns this buffer into a streaming buffer holding regionBytes per frame.
+     * Can only be called once per VBO, since persistent storage is immutable.
+     */
+    public void allocateStreaming(long regionBytes) {
+        if (streaming) {
+            throw new IllegalStateException("Streaming storage is already allocated");
+        }
+        GLCapabilities caps = GL.getCapabilities();
+        this.streaming = true;
+        this.persistent = caps.OpenGL44 || caps.GL_ARB_buffer_storage;
+        this.regionBytes = regionBytes;
+
+        bind();
+        if (persistent) {
+            int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+            long size = regionBytes * STREAM_REGIONS;
+            glBufferStorage(target, size, flags);
+            ByteBuffer mapping = glMapBufferRange(target, 0, size, flags);
+            if (mapping == null) {
+                throw new IllegalStateException("Failed to map streaming buffer");
+            }
+            regions = new ByteBuffer[STREAM_REGIONS];
+            for (int i = 0; i < STREAM_REGIONS; i++) {
+                regions[i] = MemoryUtil.memSlice(mapping, (int) (i * regionBytes), (int) regionBytes);
+            }
+        } else {
+            glBufferData(target, regionBytes, GL_STREAM_DRAW);
+            staging = MemoryUtil.memAlloc((int) regionBytes);
+        }
+        unbind();
+    }
+
+    /**
+     * Moves to the next streaming region and returns it for writing, cleared.
+     * Waits if the GPU has not finished with the draws that last read this region.
+     */
+    public ByteBuffer beginStreamWrite() {
+        if (!streaming) {
+            throw new IllegalStateException("Call allocateStreaming() first");
+        }
+        if (!persistent) {
+            return staging.clear();
+        }
+
+        region = (region + 1) % STREAM_REGIONS;
+        long fence = fences[region];
+        if (fence != 0) {
+            int status = glClientWaitSync(fence, 0, 0);
+            if (status == GL_TIMEOUT_EXPIRED) {
+                streamStalls++;
+                do {
+                    status = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_WAIT_NANOS);
+                } while (status == GL_TIMEOUT_EXPIRED);
+            }
+            glDeleteSync(fence);
+            fences[region] = 0;
+        }
+        return regions[region].clear();
+    }
+
+    /**
+     * Finishes writing the current region.
+     *
+     * @param bytes number of bytes written from the start of the region
+     * @return byte offset of the written data in this buffer
+     */
+    public long endStreamWrite(long bytes) {
+        if (persistent) {
+            // Coherent mapping: writes are visible to commands issued from now on
+            return region * regionBytes;
+        }
+        bind();
+        glBufferData(target, regionBytes, GL_STREAM_DRAW);
+        staging.limit((int) bytes).position(0);
+        glBufferSubData(target, 0, staging);
+        unbind();
+        return 0;
+    }
+
+    /**
+     * Marks the current region as in use by the draws issued so far.
+     * Call after the last draw that reads it.
+     */
+    public void fenceStream() {
+        if (!persistent) return;
+        if (fences[region] != 0) {
+            glDeleteSync(fences[region]);
+        }
+        fences[region] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    /**
+     * Returns true if streaming writes go straight to persistently mapped memory.
+     */
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    /**
+     * Returns how many times beginStreamWrite() had to wait for the GPU.
+     */
+    public int getStreamStallCount() {
+        return streamStalls;
+    }
+
     public int getId() {
         return id;
     }
@@ -113,6 +284,17 @@ public class VBO implements AutoCloseable {
 
     @Override
     public void close() {
+        if (persistent) {
+            for (long fence : fences) {
+                if (fence != 0) glDeleteSync(fence);
+            }
+            bind();
+            glUnmapBuffer(target);
+            unbind();
+        }
+        if (staging != null) {
+            MemoryUtil.memFree(staging);
+        }
         glDeleteBuffers(id);
     }
 }
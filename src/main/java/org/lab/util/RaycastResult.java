@@ -5,6 +5,10 @@ import org.joml.Vector3i;
 /**
  * Stores the result of a raycast against voxel blocks.
  * Contains the hit block position and the face that was hit.
+ *
+ * Results are mutable so per-frame raycasts can reuse one instance through
+ * Raycaster.cast(..., RaycastResult); the Vector3i-returning getters
+ * allocate, the overloads taking a destination do not.
  */
 public class RaycastResult {
 
@@ -28,16 +32,30 @@ public class RaycastResult {
         }
     }
 
-    private final int x, y, z;
-    private final Face face;
-    private final float distance;
+    private int x, y, z;
+    private Face face;
+    private float distance;
+
+    /**
+     * Creates an empty result to be filled by Raycaster.cast(..., RaycastResult).
+     */
+    public RaycastResult() {
+    }
 
     public RaycastResult(int x, int y, int z, Face face, float distance) {
+        set(x, y, z, face, distance);
+    }
+
+    /**
+     * Overwrites this result and returns it.
+     */
+    public RaycastResult set(int x, int y, int z, Face face, float distance) {
         this.x = x;
         this.y = y;
         this.z = z;
         this.face = face;
         this.distance = distance;
+        return this;
     }
 
     public int getX() {
@@ -67,6 +85,13 @@ public class RaycastResult {
         return new Vector3i(x, y, z);
     }
 
+    /**
+     * Stores the block position in dest and returns it.
+     */
+    public Vector3i getBlockPos(Vector3i dest) {
+        return dest.set(x, y, z);
+    }
+
     /**
      * Returns the position adjacent to the hit block (based on the hit face).
      * This is where a new block would be placed.
@@ -74,4 +99,13 @@ public class RaycastResult {
     public Vector3i getAdjacentPos() {
         return new Vector3i(x + face.nx, y + face.ny, z + face.nz);
     }
+
+    /**
+     * Stores the adjacent position in dest and returns it, or returns null
+     * (leaving dest unchanged) if the ray started inside the block and no face was hit.
+     */
+    public Vector3i getAdjacentPos(Vector3i dest) {
+        if (face == null) return null;
+        return dest.set(x + face.nx, y + face.ny, z + face.nz);
+    }
 }
@@ -1,6 +1,8 @@
 package org.lab.util;
 
 import org.joml.Vector3f;
+import org.lab.metrics.Histogram;
+import org.lab.metrics.Metrics;
 import org.lab.world.World;
 
 /**
@@ -8,6 +10,8 @@ import org.lab.world.World;
  * Efficiently finds the first block hit by a ray in voxel space.
  */
 public class Raycaster {
+    private static final Histogram STEPS =
+        Metrics.global().histogram("voxel_raycast_steps", "Voxels visited per raycast");
 
     /**
      * Casts a ray through the voxel world and returns the first block hit.
@@ -19,6 +23,25 @@ public class Raycaster {
      * @return RaycastResult if a block was hit, null otherwise
      */
     public static RaycastResult cast(World world, Vector3f origin, Vector3f dir, float maxDist) {
+        return trace(world, origin, dir, maxDist, null);
+    }
+
+    /**
+     * Casts a ray and writes the first block hit into a caller-owned result.
+     * Allocates nothing, so it can run every frame.
+     *
+     * @param result receives the hit; left unchanged if nothing was hit
+     * @return true if a block was hit
+     */
+    public static boolean cast(World world, Vector3f origin, Vector3f dir, float maxDist, RaycastResult result) {
+        return trace(world, origin, dir, maxDist, result) != null;
+    }
+
+    /**
+     * Walks the ray; on a hit fills result, or a new one if result is null, and returns it.
+     */
+    private static RaycastResult trace(World world, Vector3f origin, Vector3f dir, float maxDist,
+                                       RaycastResult result) {
         // Current voxel position
         int x = (int) Math.floor(origin.x);
         int y = (int) Math.floor(origin.y);
@@ -41,12 +64,17 @@ public class Raycaster {
 
         RaycastResult.Face lastFace = null;
         float dist = 0;
+        int steps = 0;
 
         // Step through voxels until we hit something or exceed max distance
         while (dist < maxDist) {
             // Check if current voxel contains a block
+            steps++;
             if (world.hasBlock(x, y, z)) {
-                return new RaycastResult(x, y, z, lastFace, dist);
+                STEPS.record(steps);
+                return result != null
+                    ? result.set(x, y, z, lastFace, dist)
+                    : new RaycastResult(x, y, z, lastFace, dist);
             }
 
             // Move to next voxel boundary (choose axis with smallest t value)
@@ -68,6 +96,7 @@ public class Raycaster {
             }
         }
 
+        STEPS.record(steps);
         return null;
     }
 
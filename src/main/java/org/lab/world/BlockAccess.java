@@ -0,0 +1,14 @@
+package org.lab.world;
+
+/**
+ * Read-only view of block types by world coordinates.
+ * Implemented by World and by anything that can answer block queries
+ * without exposing the full world (e.g., chunk snapshots for meshing).
+ */
+public interface BlockAccess {
+    /**
+     * Returns the texture index of the block at the given coordinates,
+     * or -1 if the voxel is empty.
+     */
+    int getBlockType(int x, int y, int z);
+}
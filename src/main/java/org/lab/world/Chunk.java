@@ -0,0 +1,139 @@
+package org.lab.world;
+
+/**
+ * Fixed-size 16x16x16 section of the world.
+ * Stores one compact block ID per voxel instead of a Block object, using a
+ * palette-compressed PalettedStorage (0 bits per voxel for uniform chunks).
+ *
+ * Block IDs: 0 = air, otherwise textureIndex + 1.
+ * Voxels are laid out Y-major: index = (y * 16 + z) * 16 + x.
+ */
+public class Chunk {
+    public static final int SIZE = 16;
+    public static final int SHIFT = 4;
+    public static final int MASK = SIZE - 1;
+    public static final int VOLUME = SIZE * SIZE * SIZE;
+
+    public static final short AIR = 0;
+
+    private final int chunkX, chunkY, chunkZ;
+    private final PalettedStorage blocks;
+    private int blockCount;
+
+    // Position in World's dense chunk list, used for O(1) swap-removal
+    int listIndex = -1;
+
+    public Chunk(int chunkX, int chunkY, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.chunkZ = chunkZ;
+        this.blocks = new PalettedStorage(VOLUME, AIR);
+    }
+
+    /**
+     * Creates a deep copy of another chunk (e.g., for meshing or saving off-thread).
+     */
+    public Chunk(Chunk other) {
+        this.chunkX = other.chunkX;
+        this.chunkY = other.chunkY;
+        this.chunkZ = other.chunkZ;
+        this.blocks = new PalettedStorage(other.blocks);
+        this.blockCount = other.blockCount;
+    }
+
+    /**
+     * Returns the block ID at the given local coordinates (0-15 on each axis).
+     */
+    public int get(int lx, int ly, int lz) {
+        return blocks.get(index(lx, ly, lz));
+    }
+
+    /**
+     * Sets the block ID at the given local coordinates.
+     * Returns the previous block ID.
+     */
+    public int set(int lx, int ly, int lz, int id) {
+        int previous = blocks.set(index(lx, ly, lz), id);
+
+        if (previous == AIR && id != AIR) {
+            blockCount++;
+        } else if (previous != AIR && id == AIR) {
+            blockCount--;
+            if (blockCount == 0) {
+                // Drop stale palette entries and packed data once the chunk is empty
+                blocks.fill(AIR);
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Returns the number of non-air voxels in this chunk.
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Returns the palette-compressed voxel storage.
+     */
+    public PalettedStorage getStorage() {
+        return blocks;
+    }
+
+    public boolean isEmpty() {
+        return blockCount == 0;
+    }
+
+    /**
+     * Visits every block in this chunk with world coordinates.
+     */
+    public void forEachBlock(World.BlockVisitor visitor) {
+        int baseX = chunkX << SHIFT;
+        int baseY = chunkY << SHIFT;
+        int baseZ = chunkZ << SHIFT;
+        for (int ly = 0; ly < SIZE; ly++) {
+            for (int lz = 0; lz < SIZE; lz++) {
+                for (int lx = 0; lx < SIZE; lx++) {
+                    int id = get(lx, ly, lz);
+                    if (id != AIR) {
+                        visitor.visit(baseX + lx, baseY + ly, baseZ + lz, id - 1);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    /**
+     * Converts local coordinates to an index into the voxel array.
+     */
+    public static int index(int lx, int ly, int lz) {
+        return (ly << (2 * SHIFT)) | (lz << SHIFT) | lx;
+    }
+
+    /**
+     * Converts a world coordinate to the coordinate of its containing chunk.
+     */
+    public static int toChunk(int worldCoord) {
+        return worldCoord >> SHIFT;
+    }
+
+    /**
+     * Converts a world coordinate to a local coordinate within its chunk.
+     */
+    public static int toLocal(int worldCoord) {
+        return worldCoord & MASK;
+    }
+}
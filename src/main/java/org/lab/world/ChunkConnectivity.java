@@ -0,0 +1,134 @@
+package org.lab.world;
+
+/**
+ * Face-to-face connectivity of a chunk's empty space.
+ *
+ * For each of the 15 unordered pairs of chunk faces, one bit records whether
+ * the two faces can see each other through connected air inside the chunk.
+ * It is computed with a flood fill over the chunk's air voxels: every air
+ * region connects all the faces it touches. Visibility searches use it to
+ * avoid walking into chunks through walls (caves, buried rooms).
+ *
+ * Faces are numbered like directions: -X, +X, -Y, +Y, -Z, +Z.
+ */
+public final class ChunkConnectivity {
+    public static final int NEG_X = 0, POS_X = 1, NEG_Y = 2, POS_Y = 3, NEG_Z = 4, POS_Z = 5;
+    public static final int FACE_COUNT = 6;
+
+    /** Every face sees every other face (empty or unknown chunks). */
+    public static final int ALL = (1 << 15) - 1;
+    /** No face sees any other face (solid chunks). */
+    public static final int NONE = 0;
+
+    private static final int[] DX = {-1, 1, 0, 0, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1, 0, 0};
+    private static final int[] DZ = {0, 0, 0, 0, -1, 1};
+
+    // Bit index for each ordered face pair; -1 on the diagonal
+    private static final int[] PAIR_BIT = new int[FACE_COUNT * FACE_COUNT];
+
+    static {
+        int bit = 0;
+        for (int a = 0; a < FACE_COUNT; a++) {
+            PAIR_BIT[a * FACE_COUNT + a] = -1;
+            for (int b = a + 1; b < FACE_COUNT; b++) {
+                PAIR_BIT[a * FACE_COUNT + b] = bit;
+                PAIR_BIT[b * FACE_COUNT + a] = bit;
+                bit++;
+            }
+        }
+    }
+
+    private ChunkConnectivity() {
+    }
+
+    /**
+     * Returns true if the two faces see each other according to the connectivity mask.
+     * A face always sees itself.
+     */
+    public static boolean isConnected(int connectivity, int faceA, int faceB) {
+        int bit = PAIR_BIT[faceA * FACE_COUNT + faceB];
+        return bit < 0 || (connectivity & (1 << bit)) != 0;
+    }
+
+    /**
+     * Returns the face on the other side of the chunk (-X for +X, and so on).
+     */
+    public static int opposite(int face) {
+        return face ^ 1;
+    }
+
+    public static int offsetX(int face) {
+        return DX[face];
+    }
+
+    public static int offsetY(int face) {
+        return DY[face];
+    }
+
+    public static int offsetZ(int face) {
+        return DZ[face];
+    }
+
+    /**
+     * Computes the connectivity mask of a chunk. A null chunk counts as empty.
+     */
+    public static int compute(Chunk chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return ALL;
+        }
+        if (chunk.getBlockCount() == Chunk.VOLUME) {
+            return NONE;
+        }
+
+        boolean[] visited = new boolean[Chunk.VOLUME];
+        int[] stack = new int[Chunk.VOLUME];
+        int connectivity = NONE;
+
+        for (int start = 0; start < Chunk.VOLUME; start++) {
+            if (visited[start] || isSolid(chunk, start)) continue;
+
+            // Flood one air region, collecting the faces it touches
+            int faces = 0;
+            int top = 0;
+            stack[top++] = start;
+            visited[start] = true;
+            while (top > 0) {
+                int index = stack[--top];
+                int lx = index & Chunk.MASK;
+                int lz = (index >> Chunk.SHIFT) & Chunk.MASK;
+                int ly = index >> (2 * Chunk.SHIFT);
+
+                for (int face = 0; face < FACE_COUNT; face++) {
+                    int nx = lx + DX[face];
+                    int ny = ly + DY[face];
+                    int nz = lz + DZ[face];
+                    if ((nx | ny | nz) < 0 || nx >= Chunk.SIZE || ny >= Chunk.SIZE || nz >= Chunk.SIZE) {
+                        faces |= 1 << face; // stepped out of the chunk through this face
+                        continue;
+                    }
+                    int neighbor = Chunk.index(nx, ny, nz);
+                    if (!visited[neighbor] && !isSolid(chunk, neighbor)) {
+                        visited[neighbor] = true;
+                        stack[top++] = neighbor;
+                    }
+                }
+            }
+
+            for (int a = 0; a < FACE_COUNT; a++) {
+                if ((faces & (1 << a)) == 0) continue;
+                for (int b = a + 1; b < FACE_COUNT; b++) {
+                    if ((faces & (1 << b)) != 0) {
+                        connectivity |= 1 << PAIR_BIT[a * FACE_COUNT + b];
+                    }
+                }
+            }
+            if (connectivity == ALL) break;
+        }
+        return connectivity;
+    }
+
+    private static boolean isSolid(Chunk chunk, int index) {
+        return chunk.getStorage().get(index) != Chunk.AIR;
+    }
+}
@@ -0,0 +1,96 @@
+package org.lab.world;
+
+/**
+ * Immutable copy of one chunk and its six face neighbors.
+ *
+ * Captured on the thread that owns the World, then handed to mesh workers so
+ * the live World can keep being edited while meshing is in flight. Only face
+ * neighbors are copied because face culling only looks one voxel along each
+ * face normal; anything further away reads as empty.
+ */
+public final class ChunkSnapshot implements BlockAccess {
+    // Neighbor slots: -X, +X, -Y, +Y, -Z, +Z
+    private static final int NEG_X = 0, POS_X = 1, NEG_Y = 2, POS_Y = 3, NEG_Z = 4, POS_Z = 5;
+
+    private final int chunkX, chunkY, chunkZ;
+    private final Chunk center;
+    private final Chunk[] neighbors = new Chunk[6];
+
+    private ChunkSnapshot(int chunkX, int chunkY, int chunkZ, Chunk center) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.chunkZ = chunkZ;
+        this.center = center;
+    }
+
+    /**
+     * Copies the chunk at the given chunk coordinates and its face neighbors.
+     * Must be called on the thread that edits the world.
+     */
+    public static ChunkSnapshot capture(World world, int chunkX, int chunkY, int chunkZ) {
+        ChunkSnapshot snapshot = new ChunkSnapshot(chunkX, chunkY, chunkZ,
+            copyOf(world.getChunk(chunkX, chunkY, chunkZ)));
+        snapshot.neighbors[NEG_X] = copyOf(world.getChunk(chunkX - 1, chunkY, chunkZ));
+        snapshot.neighbors[POS_X] = copyOf(world.getChunk(chunkX + 1, chunkY, chunkZ));
+        snapshot.neighbors[NEG_Y] = copyOf(world.getChunk(chunkX, chunkY - 1, chunkZ));
+        snapshot.neighbors[POS_Y] = copyOf(world.getChunk(chunkX, chunkY + 1, chunkZ));
+        snapshot.neighbors[NEG_Z] = copyOf(world.getChunk(chunkX, chunkY, chunkZ - 1));
+        snapshot.neighbors[POS_Z] = copyOf(world.getChunk(chunkX, chunkY, chunkZ + 1));
+        return snapshot;
+    }
+
+    private static Chunk copyOf(Chunk chunk) {
+        return chunk != null ? new Chunk(chunk) : null;
+    }
+
+    @Override
+    public int getBlockType(int x, int y, int z) {
+        int dx = Chunk.toChunk(x) - chunkX;
+        int dy = Chunk.toChunk(y) - chunkY;
+        int dz = Chunk.toChunk(z) - chunkZ;
+
+        Chunk chunk;
+        if (dx == 0 && dy == 0 && dz == 0) {
+            chunk = center;
+        } else if (dy == 0 && dz == 0 && (dx == -1 || dx == 1)) {
+            chunk = neighbors[dx < 0 ? NEG_X : POS_X];
+        } else if (dx == 0 && dz == 0 && (dy == -1 || dy == 1)) {
+            chunk = neighbors[dy < 0 ? NEG_Y : POS_Y];
+        } else if (dx == 0 && dy == 0 && (dz == -1 || dz == 1)) {
+            chunk = neighbors[dz < 0 ? NEG_Z : POS_Z];
+        } else {
+            return -1;
+        }
+
+        if (chunk == null) {
+            return -1;
+        }
+        return chunk.get(Chunk.toLocal(x), Chunk.toLocal(y), Chunk.toLocal(z)) - 1;
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    /**
+     * Flood-fills the captured center chunk; see ChunkConnectivity.
+     */
+    public int computeConnectivity() {
+        return ChunkConnectivity.compute(center);
+    }
+
+    /**
+     * Returns true if the captured center chunk has no blocks.
+     */
+    public boolean isEmpty() {
+        return center == null || center.isEmpty();
+    }
+}
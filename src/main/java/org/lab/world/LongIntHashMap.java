@@ -0,0 +1,205 @@
+package org.lab.world;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive int values.
+ * Avoids boxing Long/Integer on every lookup, so get() and put() on an
+ * existing key never allocate.
+ *
+ * Uses linear probing with backward-shift deletion (no tombstones), so probe
+ * sequences stay short no matter how many removals happen. Key 0 is stored
+ * out of band because 0 marks empty slots in the key array.
+ */
+public class LongIntHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int noEntryValue;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    /**
+     * Creates a map that returns the given value for missing keys.
+     */
+    public LongIntHashMap(int noEntryValue) {
+        this(DEFAULT_CAPACITY, noEntryValue);
+    }
+
+    /**
+     * Creates a map sized for the expected number of entries.
+     *
+     * @param expectedSize  number of entries to hold before the first resize
+     * @param noEntryValue  value returned by get() and remove() for missing keys
+     */
+    public LongIntHashMap(int expectedSize, int noEntryValue) {
+        this.noEntryValue = noEntryValue;
+        int capacity = tableSizeFor(expectedSize);
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the value for the key, or the no-entry value if absent.
+     */
+    public int get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : noEntryValue;
+        }
+        int i = slot(key);
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) return values[i];
+            i = (i + 1) & mask;
+        }
+        return noEntryValue;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int i = slot(key);
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Associates the value with the key.
+     * Returns the previous value, or the no-entry value if the key was absent.
+     */
+    public int put(long key, int value) {
+        if (key == 0) {
+            int previous = hasZeroKey ? zeroValue : noEntryValue;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+        int i = slot(key);
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return noEntryValue;
+    }
+
+    /**
+     * Removes the key.
+     * Returns the removed value, or the no-entry value if the key was absent.
+     */
+    public int remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) return noEntryValue;
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int i = slot(key);
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) {
+                int previous = values[i];
+                shiftKeys(i);
+                size--;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        return noEntryValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * Closes the gap left at a removed slot by moving later entries of the
+     * same probe run backward, so lookups never need tombstones.
+     */
+    private void shiftKeys(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            long k = keys[i];
+            if (k == 0) break;
+            int ideal = slot(k);
+            // Move the entry if its ideal slot is not cyclically within (gap, i]
+            if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[newCapacity];
+        values = new int[newCapacity];
+        mask = newCapacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k != 0) {
+                int i = slot(k);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private int slot(long key) {
+        return mix(key) & mask;
+    }
+
+    /**
+     * Scrambles packed coordinates so neighbouring keys spread across the table.
+     */
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32) ^ (h >>> 16));
+    }
+
+    /**
+     * Returns a power-of-two table size that keeps the load factor at or below 0.5.
+     */
+    static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+        return Math.max(capacity, DEFAULT_CAPACITY);
+    }
+}
@@ -0,0 +1,195 @@
+package org.lab.world;
+
+import java.util.Arrays;
+
+/**
+ * Palette-compressed block ID storage for one chunk.
+ *
+ * Each voxel stores an index into a small local palette of block IDs, packed
+ * into a long[] with the smallest power-of-two bit width that fits the palette:
+ * - 0 bits: uniform section (single palette entry, no data array)
+ * - 1, 2, 4, 8 bits: up to 2, 4, 16, 256 distinct block IDs
+ * - 16 bits: direct mode, voxels store raw block IDs and the palette is dropped
+ *
+ * Power-of-two widths mean entries never straddle two longs.
+ * The width grows automatically as new block IDs are written.
+ */
+public class PalettedStorage {
+    private static final int MAX_PALETTE_BITS = 8;
+    private static final int DIRECT_BITS = 16;
+
+    private final int size;
+    private short[] palette;
+    private int paletteSize;
+    private int bits;
+    private long[] data;
+
+    /**
+     * Creates storage for the given number of voxels, all set to the given ID.
+     */
+    public PalettedStorage(int size, int initialId) {
+        this.size = size;
+        this.palette = new short[] { (short) initialId };
+        this.paletteSize = 1;
+        this.bits = 0;
+        this.data = null;
+    }
+
+    /**
+     * Creates a deep copy of another storage.
+     */
+    public PalettedStorage(PalettedStorage other) {
+        this.size = other.size;
+        this.palette = other.palette != null ? other.palette.clone() : null;
+        this.paletteSize = other.paletteSize;
+        this.bits = other.bits;
+        this.data = other.data != null ? other.data.clone() : null;
+    }
+
+    /**
+     * Returns the block ID stored at the given index.
+     */
+    public int get(int index) {
+        if (bits == 0) {
+            return palette[0];
+        }
+        int value = read(data, bits, index);
+        return bits == DIRECT_BITS ? value : palette[value];
+    }
+
+    /**
+     * Stores a block ID at the given index, widening the storage if needed.
+     * Returns the previous block ID.
+     */
+    public int set(int index, int id) {
+        int previous = get(index);
+        if (previous == id) {
+            return previous;
+        }
+
+        if (bits == DIRECT_BITS) {
+            write(data, bits, index, id);
+            return previous;
+        }
+
+        int paletteIndex = indexOf(id);
+        if (paletteIndex < 0) {
+            paletteIndex = addToPalette(id);
+            if (bits == DIRECT_BITS) {
+                // Palette overflowed and storage switched to raw IDs
+                write(data, bits, index, id);
+                return previous;
+            }
+        }
+        write(data, bits, index, paletteIndex);
+        return previous;
+    }
+
+    /**
+     * Resets every voxel to a single ID, releasing the packed data array.
+     */
+    public void fill(int id) {
+        palette = new short[] { (short) id };
+        paletteSize = 1;
+        bits = 0;
+        data = null;
+    }
+
+    /**
+     * Returns the current bits per voxel (0, 1, 2, 4, 8, or 16).
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    /**
+     * Returns the number of palette entries (0 in direct mode).
+     */
+    public int getPaletteSize() {
+        return bits == DIRECT_BITS ? 0 : paletteSize;
+    }
+
+    /**
+     * Returns the approximate heap footprint of the palette and data arrays in bytes.
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        if (palette != null) bytes += (long) palette.length * Short.BYTES;
+        if (data != null) bytes += (long) data.length * Long.BYTES;
+        return bytes;
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == id) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Appends an ID to the palette, growing the bit width when the palette
+     * no longer fits. Returns the new palette index.
+     */
+    private int addToPalette(int id) {
+        int paletteIndex = paletteSize;
+        int requiredBits = bitsFor(paletteSize + 1);
+
+        if (requiredBits > MAX_PALETTE_BITS) {
+            resize(DIRECT_BITS);
+            return -1;
+        }
+
+        if (paletteSize == palette.length) {
+            palette = Arrays.copyOf(palette, Math.max(2, palette.length * 2));
+        }
+        palette[paletteSize++] = (short) id;
+
+        if (requiredBits > bits) {
+            resize(requiredBits);
+        }
+        return paletteIndex;
+    }
+
+    /**
+     * Repacks all voxels into a data array with the new bit width.
+     */
+    private void resize(int newBits) {
+        long[] newData = new long[size * newBits / Long.SIZE];
+        for (int i = 0; i < size; i++) {
+            int paletteIndex = bits == 0 ? 0 : read(data, bits, i);
+            int value = newBits == DIRECT_BITS ? palette[paletteIndex] : paletteIndex;
+            write(newData, newBits, i, value);
+        }
+        if (newBits == DIRECT_BITS) {
+            palette = null;
+            paletteSize = 0;
+        }
+        bits = newBits;
+        data = newData;
+    }
+
+    /**
+     * Returns the smallest supported bit width that can index the given palette size.
+     */
+    private static int bitsFor(int entries) {
+        if (entries <= 1) return 0;
+        int needed = 32 - Integer.numberOfLeadingZeros(entries - 1);
+        // Round up to a power of two: 1, 2, 4, 8, 16
+        return needed == 1 ? 1 : Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int read(long[] data, int bits, int index) {
+        int perLong = Long.SIZE / bits;
+        int shift = (index % perLong) * bits;
+        long mask = (1L << bits) - 1;
+        return (int) ((data[index / perLong] >>> shift) & mask);
+    }
+
+    private static void write(long[] data, int bits, int index, int value) {
+        int perLong = Long.SIZE / bits;
+        int slot = index / perLong;
+        int shift = (index % perLong) * bits;
+        long mask = (1L << bits) - 1;
+        data[slot] = (data[slot] & ~(mask << shift)) | (((long) value & mask) << shift);
+    }
+}
@@ -0,0 +1,129 @@
+package org.lab.world;
+
+/**
+ * Builds the built-in test worlds, shared by the windowed and headless entry points.
+ *
+ * Block types: 0=grass, 1=concrete, 2=wood plank
+ */
+public final class TestScene {
+
+    private TestScene() {
+    }
+
+    /**
+     * Simple gameplay scene: a 10x10 grass floor with a tower.
+     */
+    public static void buildFlat(World world) {
+        for (int x = -5; x < 5; x++) {
+            for (int z = -5; z < 5; z++) {
+                world.addBlock(new Block(x, 0, z, 0));
+            }
+        }
+        // Tower for testing
+        for (int y = 1; y <= 5; y++) {
+            world.addBlock(new Block(3, y, 3, 0));
+        }
+    }
+
+    /**
+     * Static scene for the orbital camera demo.
+     * Features a flat grass terrain with a gentle hill, a house, and a walkway.
+     */
+    public static void buildHill(World world) {
+        int halfSize = 12; // Creates 25x25 area
+
+        // Create base grass terrain with a gentle hill in one corner
+        for (int x = -halfSize; x <= halfSize; x++) {
+            for (int z = -halfSize; z <= halfSize; z++) {
+                // Small hill offset to corner (around x=6, z=6)
+                float hillCenterX = 6;
+                float hillCenterZ = 6;
+                float dx = x - hillCenterX;
+                float dz = z - hillCenterZ;
+                float dist = (float) Math.sqrt(dx * dx + dz * dz);
+
+                // Gentle hill: max height 3, radius 5
+                int height = 0;
+                if (dist < 5) {
+                    float falloff = (float) Math.cos((dist / 5) * Math.PI / 2);
+                    height = (int) (3 * falloff);
+                }
+
+                // Add grass blocks from y=0 up to height
+                // Skip the very tip of the hill (center point at max height)
+                int maxY = (dist < 1 && height == 3) ? height - 1 : height;
+                for (int y = 0; y <= maxY; y++) {
+                    world.addBlock(new Block(x, y, z, 0)); // grass
+                }
+            }
+        }
+
+        // Build a house at (-5, 1, -5) - 5x4x5 structure
+        buildHouse(world, -5, 1, -5);
+
+        // Build a walkway from house to hill
+        buildWalkway(world);
+    }
+
+    /**
+     * Builds a simple house with concrete walls and wood plank roof.
+     * House is 5 wide (x), 4 tall (y), 5 deep (z).
+     */
+    private static void buildHouse(World world, int startX, int startY, int startZ) {
+        int width = 5;
+        int height = 4;
+        int depth = 5;
+
+        // Walls (concrete = 1)
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int z = 0; z < depth; z++) {
+                    // Only build walls (edges) and floor, leave interior hollow
+                    boolean isWall = (x == 0 || x == width - 1 || z == 0 || z == depth - 1);
+                    boolean isFloor = (y == 0);
+
+                    if (isFloor) {
+                        // Wood plank floor
+                        world.addBlock(new Block(startX + x, startY + y, startZ + z, 2));
+                    } else if (isWall) {
+                        // Leave a door opening on front wall (z == 0, middle x)
+                        boolean isDoor = (z == 0 && x == width / 2 && y < 2);
+                        // Leave window openings on side walls
+                        boolean isWindow = ((x == 0 || x == width - 1) && z == depth / 2 && y == 2);
+
+                        if (!isDoor && !isWindow) {
+                            world.addBlock(new Block(startX + x, startY + y, startZ + z, 1)); // concrete
+                        }
+                    }
+                }
+            }
+        }
+
+        // Flat roof (wood plank = 2)
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < depth; z++) {
+                world.addBlock(new Block(startX + x, startY + height, startZ + z, 2));
+            }
+        }
+    }
+
+    /**
+     * Builds a concrete walkway from the house entrance toward the hill.
+     */
+    private static void buildWalkway(World world) {
+        // Walkway from house door at (-3, 1, -5) going toward positive Z and X
+        // Start at z=-4 (just outside door) and curve toward the hill
+
+        // Straight section from house
+        for (int z = -4; z <= 2; z++) {
+            world.addBlock(new Block(-3, 1, z, 1)); // concrete
+            world.addBlock(new Block(-2, 1, z, 1)); // 2-wide path
+        }
+
+        // Curve toward the hill (diagonal section)
+        for (int i = 0; i < 4; i++) {
+            world.addBlock(new Block(-2 + i, 1, 2 + i, 1));
+            world.addBlock(new Block(-1 + i, 1, 2 + i, 1));
+        }
+    }
+}
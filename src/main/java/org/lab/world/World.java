@@ -1,35 +1,91 @@
 package org.lab.world;
 
+import org.lab.metrics.Counter;
+import org.lab.metrics.Metrics;
+
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Simple world container with block lookup.
- * Uses a HashMap for O(1) block collision queries.
+ * Chunked world container with block lookup.
+ * Voxels are stored as compact block IDs inside 16x16x16 chunks, so the world
+ * no longer keeps a Block object per voxel. Block objects passed to addBlock()
+ * only carry position and texture index into the world.
+ *
+ * Non-empty chunks are also kept in a dense list for contiguous iteration.
+ * Chunks that become empty are swap-removed from the list in O(1) using the
+ * index stored in each chunk, so block removal never scans.
+ *
+ * Chunk and heightmap lookups use primitive long-keyed maps, so hasBlock()
+ * and heightmap updates never box their keys or values.
+ *
+ * Every block addition, replacement and removal is published to registered
+ * WorldListeners, so renderers can update only what changed.
  */
-public class World {
-    private final Map<Long, Block> blockMap = new HashMap<>();
-    private final List<Block> blocks = new ArrayList<>();
-    private final Map<Long, Integer> heightMap = new HashMap<>();
+public class World implements BlockAccess {
+    private static final Counter BLOCKS_PLACED =
+        Metrics.global().counter("voxel_blocks_placed_total", "Blocks added to an empty cell of any world");
+    private static final Counter BLOCKS_REMOVED =
+        Metrics.global().counter("voxel_blocks_removed_total", "Blocks removed from any world");
+
+    private final LongObjectHashMap<Chunk> chunks = new LongObjectHashMap<>();
+    private final List<Chunk> chunkList = new ArrayList<>();
+    private final List<Chunk> chunkListView = Collections.unmodifiableList(chunkList);
+    private final LongIntHashMap heightMap = new LongIntHashMap(Integer.MIN_VALUE);
+    private final List<WorldListener> listeners = new ArrayList<>();
+    private int blockCount;
+
+    // Most lookups (collision, raycast) hit the same chunk repeatedly,
+    // so the last chunk is cached to skip the map lookup entirely
+    private long lastChunkKey = Long.MIN_VALUE;
+    private Chunk lastChunk;
+
+    /**
+     * Callback for iterating over all blocks without allocating Block objects.
+     */
+    @FunctionalInterface
+    public interface BlockVisitor {
+        void visit(int x, int y, int z, int textureIndex);
+    }
 
     /**
      * Adds a block to the world.
+     * Replaces any block already at the same position.
      */
     public void addBlock(Block block) {
-        blocks.add(block);
         int x = (int) Math.floor(block.getPosition().x);
         int y = (int) Math.floor(block.getPosition().y);
         int z = (int) Math.floor(block.getPosition().z);
-        blockMap.put(packCoord(x, y, z), block);
+        setBlock(x, y, z, block.getTextureIndex());
+    }
+
+    /**
+     * Places a block with the given texture index at integer coordinates.
+     * Replaces any block already at the same position; a negative index removes it.
+     */
+    public void setBlock(int x, int y, int z, int textureIndex) {
+        if (textureIndex < 0) {
+            removeBlock(x, y, z);
+            return;
+        }
+        Chunk chunk = getOrCreateChunk(Chunk.toChunk(x), Chunk.toChunk(y), Chunk.toChunk(z));
+        int previous = chunk.set(Chunk.toLocal(x), Chunk.toLocal(y), Chunk.toLocal(z), textureIndex + 1);
+        if (previous == textureIndex + 1) {
+            return;
+        }
+        if (previous == Chunk.AIR) {
+            blockCount++;
+            BLOCKS_PLACED.increment();
+        }
 
         // Update heightmap
         long xzKey = packXZ(x, z);
-        Integer currentHeight = heightMap.get(xzKey);
-        if (currentHeight == null || y > currentHeight) {
+        if (y > heightMap.get(xzKey)) {
             heightMap.put(xzKey, y);
         }
+
+        fireBlockChanged(x, y, z, previous - 1, textureIndex);
     }
 
     /**
@@ -37,51 +93,160 @@ public class World {
      * Returns the removed block or null if no block existed.
      */
     public Block removeBlock(int x, int y, int z) {
-        Block block = blockMap.remove(packCoord(x, y, z));
-        if (block != null) {
-            blocks.remove(block);
-            // Recalculate heightmap if top block was removed
-            long xzKey = packXZ(x, z);
-            Integer currentHeight = heightMap.get(xzKey);
-            if (currentHeight != null && currentHeight == y) {
-                // Find new highest block in this column
-                int newHeight = Integer.MIN_VALUE;
-                for (int checkY = y - 1; checkY >= -64; checkY--) {
-                    if (hasBlock(x, checkY, z)) {
-                        newHeight = checkY;
-                        break;
-                    }
-                }
-                if (newHeight == Integer.MIN_VALUE) {
-                    heightMap.remove(xzKey);
-                } else {
-                    heightMap.put(xzKey, newHeight);
+        Chunk chunk = getChunk(Chunk.toChunk(x), Chunk.toChunk(y), Chunk.toChunk(z));
+        if (chunk == null) {
+            return null;
+        }
+        int previous = chunk.set(Chunk.toLocal(x), Chunk.toLocal(y), Chunk.toLocal(z), Chunk.AIR);
+        if (previous == Chunk.AIR) {
+            return null;
+        }
+        blockCount--;
+        BLOCKS_REMOVED.increment();
+        if (chunk.isEmpty()) {
+            removeChunk(chunk);
+        }
+
+        // Recalculate heightmap if top block was removed
+        long xzKey = packXZ(x, z);
+        if (heightMap.get(xzKey) == y) {
+            // Find new highest block in this column
+            int newHeight = Integer.MIN_VALUE;
+            for (int checkY = y - 1; checkY >= -64; checkY--) {
+                if (hasBlock(x, checkY, z)) {
+                    newHeight = checkY;
+                    break;
                 }
             }
+            if (newHeight == Integer.MIN_VALUE) {
+                heightMap.remove(xzKey);
+            } else {
+                heightMap.put(xzKey, newHeight);
+            }
         }
-        return block;
+
+        fireBlockChanged(x, y, z, previous - 1, -1);
+        return new Block(x, y, z, previous - 1);
     }
 
     /**
      * Gets a block at the specified integer coordinates.
-     * Returns null if no block exists.
+     * Returns a new Block describing the voxel, or null if no block exists.
      */
     public Block getBlock(int x, int y, int z) {
-        return blockMap.get(packCoord(x, y, z));
+        int textureIndex = getBlockType(x, y, z);
+        return textureIndex >= 0 ? new Block(x, y, z, textureIndex) : null;
+    }
+
+    /**
+     * Gets the texture index of the block at the specified integer coordinates.
+     * Returns -1 if no block exists.
+     */
+    @Override
+    public int getBlockType(int x, int y, int z) {
+        Chunk chunk = getChunk(Chunk.toChunk(x), Chunk.toChunk(y), Chunk.toChunk(z));
+        if (chunk == null) {
+            return -1;
+        }
+        return chunk.get(Chunk.toLocal(x), Chunk.toLocal(y), Chunk.toLocal(z)) - 1;
     }
 
     /**
      * Checks if a block exists at the specified integer coordinates.
      */
     public boolean hasBlock(int x, int y, int z) {
-        return blockMap.containsKey(packCoord(x, y, z));
+        Chunk chunk = getChunk(Chunk.toChunk(x), Chunk.toChunk(y), Chunk.toChunk(z));
+        return chunk != null && chunk.get(Chunk.toLocal(x), Chunk.toLocal(y), Chunk.toLocal(z)) != Chunk.AIR;
     }
 
     /**
-     * Returns all blocks for rendering.
+     * Visits every block in the world, chunk by chunk.
      */
-    public List<Block> getBlocks() {
-        return blocks;
+    public void forEachBlock(BlockVisitor visitor) {
+        for (int i = 0; i < chunkList.size(); i++) {
+            chunkList.get(i).forEachBlock(visitor);
+        }
+    }
+
+    /**
+     * Returns the total number of blocks in the world.
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Registers a listener for block changes.
+     */
+    public void addListener(WorldListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(WorldListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireBlockChanged(int x, int y, int z, int previousType, int newType) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).blockChanged(x, y, z, previousType, newType);
+        }
+    }
+
+    /**
+     * Returns all non-empty chunks. Order changes as chunks are added and removed.
+     */
+    public List<Chunk> getChunks() {
+        return chunkListView;
+    }
+
+    /**
+     * Returns the chunk at the given chunk coordinates, or null if none exists.
+     */
+    public Chunk getChunk(int cx, int cy, int cz) {
+        long key = packCoord(cx, cy, cz);
+        if (key == lastChunkKey) {
+            return lastChunk;
+        }
+        Chunk chunk = chunks.get(key);
+        if (chunk != null) {
+            lastChunkKey = key;
+            lastChunk = chunk;
+        }
+        return chunk;
+    }
+
+    private Chunk getOrCreateChunk(int cx, int cy, int cz) {
+        Chunk chunk = getChunk(cx, cy, cz);
+        if (chunk == null) {
+            chunk = new Chunk(cx, cy, cz);
+            chunks.put(packCoord(cx, cy, cz), chunk);
+            chunk.listIndex = chunkList.size();
+            chunkList.add(chunk);
+            lastChunkKey = packCoord(cx, cy, cz);
+            lastChunk = chunk;
+        }
+        return chunk;
+    }
+
+    /**
+     * Removes an empty chunk by swapping the last chunk into its list slot.
+     */
+    private void removeChunk(Chunk chunk) {
+        long key = packCoord(chunk.getChunkX(), chunk.getChunkY(), chunk.getChunkZ());
+        chunks.remove(key);
+
+        int index = chunk.listIndex;
+        Chunk last = chunkList.remove(chunkList.size() - 1);
+        if (last != chunk) {
+            chunkList.set(index, last);
+            last.listIndex = index;
+        }
+        chunk.listIndex = -1;
+
+        if (lastChunk == chunk) {
+            lastChunkKey = Long.MIN_VALUE;
+            lastChunk = null;
+        }
     }
 
     /**
@@ -95,6 +260,27 @@ public class World {
                ((long) (z & 0x1FFFFF) << 42);
     }
 
+    /**
+     * Extracts the X coordinate from a key made by packCoord().
+     */
+    public static int unpackX(long key) {
+        return (int) (key << 43 >> 43);
+    }
+
+    /**
+     * Extracts the Y coordinate from a key made by packCoord().
+     */
+    public static int unpackY(long key) {
+        return (int) (key << 22 >> 43);
+    }
+
+    /**
+     * Extracts the Z coordinate from a key made by packCoord().
+     */
+    public static int unpackZ(long key) {
+        return (int) (key << 1 >> 43);
+    }
+
     /**
      * Packs X and Z coordinates into a single long key for heightmap lookup.
      */
@@ -107,7 +293,6 @@ public class World {
      * Returns Integer.MIN_VALUE if no blocks exist in that column.
      */
     public int getHeightAt(int x, int z) {
-        Integer h = heightMap.get(packXZ(x, z));
-        return h != null ? h : Integer.MIN_VALUE;
+        return heightMap.get(packXZ(x, z));
     }
 }
@@ -0,0 +1,16 @@
+package org.lab.world;
+
+/**
+ * Receives block change events from a World.
+ * Events fire after the world has been updated, on the thread that edited it.
+ */
+public interface WorldListener {
+    /**
+     * Called when the block at the given coordinates changes.
+     * Block types are texture indices; -1 means empty.
+     *
+     * @param previousType type before the change (-1 if a block was added)
+     * @param newType      type after the change (-1 if the block was removed)
+     */
+    void blockChanged(int x, int y, int z, int previousType, int newType);
+}
@@ -3,13 +3,13 @@
 layout (location = 0) in vec3 aPos;
 layout (location = 1) in vec2 aTexCoord;
 layout (location = 2) in vec3 aNormal;
-layout (location = 3) in vec3 iPosition;
-layout (location = 4) in vec3 iRotation;   // Kept for compatibility, unused
-layout (location = 5) in float iScale;
-layout (location = 6) in float iTexIndex;
-layout (location = 7) in float iHighlight;
+layout (location = 3) in uint iChunk;      // Entry of the block's chunk in uChunkOrigins
+layout (location = 4) in uvec4 iData;      // x: local x | local y << 4, y: local z, z: texture layer, w: flags
 
 uniform mat4 uViewProjection;
+uniform isamplerBuffer uChunkOrigins;  // Chunk origins in block coordinates (xyz)
+uniform ivec3 uHighlight;        // Highlighted block coordinates
+uniform int uHighlightEnabled;
 
 out vec2 vTexCoord;
 out vec3 vNormal;
@@ -17,12 +17,18 @@ out float vTexIndex;
 out float vHighlight;
 
 void main() {
+    // Flags: bits 0-1 = scale class (0 hidden, 1 full, 2 half, 3 quarter)
+    uint scaleClass = iData.w & 3u;
+    float scale = scaleClass == 0u ? 0.0 : 1.0 / float(1u << (scaleClass - 1u));
+
     // Simple transform: position + scale only (no rotation)
-    vec3 worldPos = aPos * iScale + iPosition;
+    ivec3 local = ivec3(iData.x & 15u, iData.x >> 4u, iData.y);
+    ivec3 blockPos = texelFetch(uChunkOrigins, int(iChunk)).xyz + local;
+    vec3 worldPos = aPos * scale + vec3(blockPos);
     gl_Position = uViewProjection * vec4(worldPos, 1.0);
 
     vNormal = aNormal;  // No rotation transform needed
     vTexCoord = aTexCoord;
-    vTexIndex = iTexIndex;
-    vHighlight = iHighlight;
+    vTexIndex = float(iData.z);
+    vHighlight = (uHighlightEnabled != 0 && blockPos == uHighlight) ? 1.0 : 0.0;
 }
@@ -0,0 +1,24 @@
+#version 330 core
+
+// Per-vertex chunk mesh data (see ChunkMeshData)
+layout (location = 0) in vec3 aPos;        // World-space position
+layout (location = 1) in vec2 aTexCoord;   // Tiles past 1.0 on merged faces
+layout (location = 2) in vec3 aNormal;
+layout (location = 3) in float aTexIndex;  // Texture array layer
+
+uniform mat4 uViewProjection;
+
+out vec2 vTexCoord;
+out vec3 vNormal;
+out float vTexIndex;
+out float vHighlight;
+
+void main() {
+    // Chunk meshes are built in world space, no model transform needed
+    gl_Position = uViewProjection * vec4(aPos, 1.0);
+
+    vNormal = aNormal;
+    vTexCoord = aTexCoord;
+    vTexIndex = aTexIndex;
+    vHighlight = 0.0;  // Highlighting is drawn by BlockRenderer on top
+}
@@ -0,0 +1,31 @@
+package org.lab;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.lab.engine.Simulation;
+import org.lab.world.TestScene;
+import org.lab.world.World;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeadlessMainTest {
+
+    @Test
+    void defaultScriptStaysOnTheFlatFloor() {
+        World world = new World();
+        TestScene.buildFlat(world);
+        Simulation simulation = new Simulation(world, 0, 1, 0);
+
+        int[] offFloorTicks = new int[1];
+        HeadlessMain.InputScript script = (tick, input, w) -> {
+            HeadlessMain.DEFAULT_SCRIPT.apply(tick, input, w);
+            Vector3f position = simulation.getPlayer().getPosition();
+            if (position.y < 0.0f) {
+                offFloorTicks[0]++;
+            }
+        };
+        HeadlessMain.run(simulation, script, 6000, false);
+
+        assertEquals(0, offFloorTicks[0]);
+    }
+}
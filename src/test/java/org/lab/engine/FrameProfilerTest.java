@@ -0,0 +1,151 @@
+package org.lab.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameProfilerTest {
+
+    @Test
+    void ringKeepsOnlyTheNewestSpans() {
+        FrameProfiler profiler = new FrameProfiler(4);
+        int stage = profiler.stage("upload");
+        for (int i = 1; i <= 10; i++) {
+            profiler.recordGpu(stage, i, 0, i);
+        }
+
+        List<FrameProfiler.Span> spans = profiler.snapshot();
+        assertEquals(10, profiler.getRecordedCount());
+        // The oldest slot is the one the writer fills next, so it is skipped
+        assertEquals(3, spans.size());
+        for (int i = 0; i < spans.size(); i++) {
+            FrameProfiler.Span span = spans.get(i);
+            assertEquals(8 + i, span.durationNanos());
+            assertEquals(8 + i, span.frame());
+            assertTrue(span.gpu());
+            assertEquals("upload", span.name());
+        }
+    }
+
+    @Test
+    void fullRingSkipsTheSlotWrittenNext() {
+        FrameProfiler profiler = new FrameProfiler(4);
+        int stage = profiler.stage("upload");
+        for (int i = 1; i <= 3; i++) {
+            profiler.recordGpu(stage, i, 0, i);
+        }
+        assertEquals(3, profiler.snapshot().size());
+
+        profiler.recordGpu(stage, 4, 0, 4);
+        List<FrameProfiler.Span> spans = profiler.snapshot();
+        assertEquals(3, spans.size());
+        assertEquals(2, spans.get(0).durationNanos());
+    }
+
+    @Test
+    void capacityRoundsUpToAPowerOfTwo() {
+        FrameProfiler profiler = new FrameProfiler(5);
+        int stage = profiler.stage("draw");
+        for (int i = 0; i < 20; i++) {
+            profiler.recordGpu(stage, i, 0, i);
+        }
+        assertEquals(8 - 1, profiler.snapshot().size());
+    }
+
+    @Test
+    void summaryPercentilesUseNearestRank() {
+        FrameProfiler profiler = new FrameProfiler(128);
+        int stage = profiler.stage("draw");
+        List<Integer> durations = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            durations.add(i);
+        }
+        Collections.shuffle(durations, new Random(3));
+        for (int duration : durations) {
+            profiler.recordGpu(stage, 0, 0, duration);
+        }
+
+        FrameProfiler.Summary summary = profiler.summarize("draw", true);
+        assertEquals(100, summary.count());
+        assertEquals(50, summary.mean());
+        assertEquals(50, summary.p50());
+        assertEquals(95, summary.p95());
+        assertEquals(99, summary.p99());
+        assertEquals(100, summary.max());
+        assertNull(profiler.summarize("draw", false));
+    }
+
+    @Test
+    void percentilesOfFewSpansStayInRange() {
+        FrameProfiler profiler = new FrameProfiler(16);
+        int stage = profiler.stage("swap");
+        profiler.recordGpu(stage, 0, 0, 7);
+
+        FrameProfiler.Summary summary = profiler.summarize("swap", true);
+        assertEquals(7, summary.p50());
+        assertEquals(7, summary.p99());
+    }
+
+    @Test
+    void nestedSpansRecordTheirDepth() {
+        FrameProfiler profiler = new FrameProfiler(16);
+        int outer = profiler.stage("physics");
+        int inner = profiler.stage("raycast");
+
+        profiler.beginFrame();
+        profiler.begin(outer);
+        profiler.begin(inner);
+        profiler.end(inner);
+        profiler.end(outer);
+        profiler.endFrame();
+
+        List<FrameProfiler.Span> spans = profiler.snapshot();
+        assertEquals(3, spans.size());
+        assertEquals("raycast", spans.get(0).name());
+        assertEquals(2, spans.get(0).depth());
+        assertEquals("physics", spans.get(1).name());
+        assertEquals(1, spans.get(1).depth());
+        assertEquals("frame", spans.get(2).name());
+        assertEquals(0, spans.get(2).depth());
+        assertEquals(0, spans.get(2).frame());
+    }
+
+    @Test
+    void misnestedSpansAreRejected() {
+        FrameProfiler profiler = new FrameProfiler(16);
+        int a = profiler.stage("a");
+        int b = profiler.stage("b");
+
+        assertThrows(IllegalStateException.class, () -> profiler.end(a));
+
+        profiler.beginFrame();
+        profiler.begin(a);
+        assertThrows(IllegalStateException.class, () -> profiler.end(b));
+        assertThrows(IllegalStateException.class, profiler::beginFrame);
+    }
+
+    @Test
+    void nestingIsLimited() {
+        FrameProfiler profiler = new FrameProfiler(16);
+        int stage = profiler.stage("deep");
+        for (int i = 0; i < FrameProfiler.MAX_DEPTH; i++) {
+            profiler.begin(stage);
+        }
+        assertThrows(IllegalStateException.class, () -> profiler.begin(stage));
+    }
+
+    @Test
+    void stageNamesAreValidated() {
+        FrameProfiler profiler = new FrameProfiler(16);
+        assertEquals(profiler.stage("input"), profiler.stage("input"));
+        assertThrows(IllegalArgumentException.class, () -> profiler.stage("bad\"name"));
+    }
+}
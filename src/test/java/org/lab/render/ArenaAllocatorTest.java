@@ -0,0 +1,172 @@
+package org.lab.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArenaAllocatorTest {
+
+    @Test
+    void allocatesFrontToBack() {
+        ArenaAllocator allocator = new ArenaAllocator(100);
+        assertEquals(0, allocator.allocate(10).getOffset());
+        assertEquals(10, allocator.allocate(20).getOffset());
+        assertEquals(30, allocator.allocate(70).getOffset());
+        assertNull(allocator.allocate(1));
+        assertEquals(100, allocator.getUsed());
+    }
+
+    @Test
+    void firstFitSkipsTooSmallHolesInTheSameClass() {
+        ArenaAllocator allocator = new ArenaAllocator(1000);
+        ArenaAllocator.Allocation small = allocator.allocate(5);   // 0..5, class 4-7
+        allocator.allocate(1);
+        ArenaAllocator.Allocation larger = allocator.allocate(7);  // 6..13, class 4-7
+        allocator.allocate(1);
+        allocator.free(larger);
+        allocator.free(small);
+
+        // The 5 hole is tried first (freed last) but cannot hold 6
+        assertEquals(6, allocator.allocate(6).getOffset());
+        assertEquals(0, allocator.allocate(5).getOffset());
+    }
+
+    @Test
+    void fallsBackToTheNextNonEmptyLargerClass() {
+        ArenaAllocator allocator = new ArenaAllocator(1000);
+        ArenaAllocator.Allocation tooSmall = allocator.allocate(5);  // class 4-7
+        allocator.allocate(1);
+        ArenaAllocator.Allocation sixteen = allocator.allocate(16);  // class 16-31
+        allocator.allocate(1);
+        allocator.free(tooSmall);
+        allocator.free(sixteen);
+
+        // Class 4-7 has no fit and 8-15 is empty: the 16 hole wins over the big tail
+        ArenaAllocator.Allocation allocation = allocator.allocate(6);
+        assertEquals(6, allocation.getOffset());
+        assertEquals(3, allocator.getFreeBlockCount());  // 5 hole, rest of the 16, tail
+    }
+
+    @Test
+    void freeCoalescesWithBothNeighbors() {
+        ArenaAllocator allocator = new ArenaAllocator(100);
+        ArenaAllocator.Allocation a = allocator.allocate(10);
+        ArenaAllocator.Allocation b = allocator.allocate(10);
+        ArenaAllocator.Allocation c = allocator.allocate(10);
+        allocator.allocate(70);
+
+        allocator.free(a);
+        allocator.free(c);
+        assertEquals(2, allocator.getFreeBlockCount());
+        assertTrue(b.isLive());
+
+        allocator.free(b);
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(30, allocator.getLargestFree());
+        assertEquals(0, allocator.allocate(30).getOffset());
+    }
+
+    @Test
+    void freeMergesIntoTheTail() {
+        ArenaAllocator allocator = new ArenaAllocator(100);
+        allocator.allocate(10);
+        ArenaAllocator.Allocation last = allocator.allocate(10);
+        allocator.free(last);
+
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(90, allocator.getLargestFree());
+        assertTrue(allocator.isPacked());
+    }
+
+    @Test
+    void compactionMovesNeverOverlapAndReportTrueOffsets() {
+        Random random = new Random(7);
+        int capacity = 4096;
+        ArenaAllocator allocator = new ArenaAllocator(capacity);
+        List<ArenaAllocator.Allocation> live = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        int[] memory = new int[capacity];
+        int nextId = 1;
+
+        // Churn until the arena is well fragmented, tagging each range with its id
+        for (int i = 0; i < 2000; i++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                int index = random.nextInt(live.size());
+                allocator.free(live.remove(index));
+                ids.remove(index);
+            } else {
+                ArenaAllocator.Allocation allocation = allocator.allocate(1 + random.nextInt(40));
+                if (allocation == null) continue;
+                int id = nextId++;
+                Arrays.fill(memory, allocation.getOffset(), allocation.getOffset() + allocation.getSize(), id);
+                live.add(allocation);
+                ids.add(id);
+            }
+        }
+        assertFalse(allocator.isPacked());
+        int freeBlocksBefore = allocator.getFreeBlockCount();
+
+        int[] moves = new int[1];
+        ArenaAllocator.MoveListener listener = (allocation, from, to, size) -> {
+            moves[0]++;
+            assertEquals(allocation.getSize(), size);
+            assertEquals(to, allocation.getOffset());
+            assertTrue(to < from, "moves go toward the front");
+            assertTrue(to + size <= from, "source and destination overlap");
+            System.arraycopy(memory, from, memory, to, size);
+        };
+        while (allocator.compactStep(4, listener) > 0) {
+            // keep stepping
+        }
+
+        assertTrue(moves[0] > 0);
+        assertTrue(allocator.getFreeBlockCount() < freeBlocksBefore);
+
+        // Every live range holds its own data and no two ranges overlap
+        boolean[] claimed = new boolean[capacity];
+        for (int i = 0; i < live.size(); i++) {
+            ArenaAllocator.Allocation allocation = live.get(i);
+            for (int unit = allocation.getOffset(); unit < allocation.getOffset() + allocation.getSize(); unit++) {
+                assertFalse(claimed[unit]);
+                claimed[unit] = true;
+                assertEquals((int) ids.get(i), memory[unit]);
+            }
+        }
+    }
+
+    @Test
+    void stalledCompactionResumesAfterFree() {
+        ArenaAllocator allocator = new ArenaAllocator(100);
+        ArenaAllocator.Allocation a = allocator.allocate(5);
+        ArenaAllocator.Allocation b = allocator.allocate(50);
+        ArenaAllocator.Allocation c = allocator.allocate(10);
+        ArenaAllocator.Allocation d = allocator.allocate(35);
+        allocator.free(a);
+
+        // Nothing fits the 5-unit hole at the front
+        ArenaAllocator.MoveListener none = (allocation, from, to, size) -> {
+            throw new AssertionError("unexpected move");
+        };
+        assertEquals(0, allocator.compactStep(4, none));
+        assertEquals(0, allocator.compactStep(4, none));
+        assertFalse(allocator.isPacked());
+
+        allocator.free(b);
+        List<ArenaAllocator.Allocation> moved = new ArrayList<>();
+        assertEquals(2, allocator.compactStep(4, (allocation, from, to, size) -> moved.add(allocation)));
+        assertSame(d, moved.get(0));
+        assertSame(c, moved.get(1));
+        assertEquals(0, d.getOffset());
+        assertEquals(35, c.getOffset());
+        assertTrue(allocator.isPacked());
+    }
+}
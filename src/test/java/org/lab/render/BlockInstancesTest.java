@@ -0,0 +1,87 @@
+package org.lab.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockInstancesTest {
+
+    /**
+     * Decodes an instance the way block.vert does.
+     */
+    private static int[] decode(ByteBuffer buffer, int slot, ChunkOrigins origins) {
+        int offset = slot * BlockInstances.STRIDE;
+        int entry = buffer.getInt(offset);
+        int xy = buffer.get(offset + BlockInstances.DATA_OFFSET) & 0xFF;
+        int z = buffer.get(offset + BlockInstances.DATA_OFFSET + 1) & 0xFF;
+        return new int[] {
+            origins.getOrigin(entry, 0) + (xy & 15),
+            origins.getOrigin(entry, 1) + (xy >> 4),
+            origins.getOrigin(entry, 2) + z,
+            buffer.get(offset + BlockInstances.DATA_OFFSET + 2) & 0xFF,
+            buffer.get(offset + BlockInstances.DATA_OFFSET + 3) & 0xFF
+        };
+    }
+
+    @Test
+    void roundTripsAnyWorldCoordinate() {
+        int[][] blocks = {
+            {0, 0, 0}, {15, 15, 15}, {-1, -1, -1}, {16, -16, 17},
+            {40000, -40000, 70000}, {-1_048_576, 5, 1_048_575}
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(blocks.length * BlockInstances.STRIDE).order(ByteOrder.nativeOrder());
+        ChunkOrigins origins = new ChunkOrigins();
+        for (int i = 0; i < blocks.length; i++) {
+            int[] b = blocks[i];
+            BlockInstances.write(buffer, i, origins.acquire(b[0], b[1], b[2]), b[0], b[1], b[2], i, BlockInstances.SCALE_FULL);
+        }
+
+        for (int i = 0; i < blocks.length; i++) {
+            int[] decoded = decode(buffer, i, origins);
+            assertEquals(blocks[i][0], decoded[0]);
+            assertEquals(blocks[i][1], decoded[1]);
+            assertEquals(blocks[i][2], decoded[2]);
+            assertEquals(i, decoded[3]);
+            assertEquals(BlockInstances.SCALE_FULL, decoded[4]);
+        }
+    }
+
+    @Test
+    void blocksInOneChunkShareAnEntry() {
+        ChunkOrigins origins = new ChunkOrigins();
+        int a = origins.acquire(1, 2, 3);
+        int b = origins.acquire(14, 0, 9);
+        int c = origins.acquire(16, 2, 3);
+
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+        assertEquals(2, origins.getCount());
+        assertEquals(a, origins.find(5, 5, 5));
+        assertEquals(-1, origins.find(-1, 0, 0));
+    }
+
+    @Test
+    void releasedEntriesAreRecycled() {
+        ChunkOrigins origins = new ChunkOrigins();
+        int first = origins.acquire(1, 1, 1);
+        origins.acquire(2, 2, 2);
+        origins.write(IntBuffer.allocate(origins.getCount() * ChunkOrigins.INTS_PER_ENTRY));
+
+        origins.release(1, 1, 1);
+        assertEquals(first, origins.find(0, 0, 0));  // one block still uses it
+        origins.release(2, 2, 2);
+        assertEquals(-1, origins.find(0, 0, 0));
+
+        int reused = origins.acquire(-100, 0, 0);
+        assertEquals(first, reused);
+        assertEquals(1, origins.getCount());
+        assertEquals(-112, origins.getOrigin(reused, 0));
+        assertTrue(origins.isDirty());
+    }
+}
@@ -0,0 +1,79 @@
+package org.lab.render;
+
+import org.junit.jupiter.api.Test;
+import org.lab.world.BlockAccess;
+import org.lab.world.Chunk;
+import org.lab.world.ChunkSnapshot;
+import org.lab.world.World;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChunkMesherTest {
+
+    private static int quads(ChunkMesher.Mode mode, BlockAccess blocks, int chunkX, int chunkY, int chunkZ) {
+        return new ChunkMesher(mode).build(blocks, chunkX, chunkY, chunkZ).getQuadCount();
+    }
+
+    @Test
+    void singleCubeHasSixFaces() {
+        World world = new World();
+        world.setBlock(3, 4, 5, 0);
+
+        assertEquals(6, quads(ChunkMesher.Mode.CULLED, world, 0, 0, 0));
+        assertEquals(6, quads(ChunkMesher.Mode.GREEDY, world, 0, 0, 0));
+    }
+
+    @Test
+    void barHidesSharedFacesAndGreedyMergesTheRest() {
+        World world = new World();
+        world.setBlock(3, 4, 5, 0);
+        world.setBlock(4, 4, 5, 0);
+
+        assertEquals(10, quads(ChunkMesher.Mode.CULLED, world, 0, 0, 0));
+        assertEquals(6, quads(ChunkMesher.Mode.GREEDY, world, 0, 0, 0));
+    }
+
+    @Test
+    void solidChunkOnlyMeshesItsSurface() {
+        World world = new World();
+        for (int y = 0; y < Chunk.SIZE; y++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    world.setBlock(x, y, z, 0);
+                }
+            }
+        }
+
+        assertEquals(6 * Chunk.SIZE * Chunk.SIZE, quads(ChunkMesher.Mode.CULLED, world, 0, 0, 0));
+        assertEquals(6, quads(ChunkMesher.Mode.GREEDY, world, 0, 0, 0));
+    }
+
+    @Test
+    void differentTexturesAreNotMerged() {
+        World world = new World();
+        world.setBlock(3, 4, 5, 0);
+        world.setBlock(4, 4, 5, 1);
+
+        assertEquals(10, quads(ChunkMesher.Mode.GREEDY, world, 0, 0, 0));
+    }
+
+    @Test
+    void snapshotHidesFacesAcrossChunkBorder() {
+        World world = new World();
+        world.setBlock(Chunk.SIZE - 1, 0, 0, 0);
+        ChunkSnapshot alone = ChunkSnapshot.capture(world, 0, 0, 0);
+
+        world.setBlock(Chunk.SIZE, 0, 0, 0);
+        ChunkSnapshot withNeighbor = ChunkSnapshot.capture(world, 0, 0, 0);
+
+        for (ChunkMesher.Mode mode : ChunkMesher.Mode.values()) {
+            assertEquals(6, quads(mode, alone, 0, 0, 0), mode.name());
+            assertEquals(5, quads(mode, withNeighbor, 0, 0, 0), mode.name());
+            assertEquals(5, quads(mode, ChunkSnapshot.capture(world, 1, 0, 0), 1, 0, 0), mode.name());
+        }
+
+        // Snapshots are copies: later edits to the live world do not leak in
+        world.removeBlock(Chunk.SIZE, 0, 0);
+        assertEquals(5, quads(ChunkMesher.Mode.CULLED, withNeighbor, 0, 0, 0));
+    }
+}
@@ -0,0 +1,135 @@
+package org.lab.render;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lab.world.Chunk;
+import org.lab.world.World;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fixed camera poses over a solid slab of chunks with one chunk buried beneath it.
+ */
+class OcclusionCullerTest {
+    // Slab of solid chunks at chunk y = 0, chunk x/z in [-SLAB_RADIUS, SLAB_RADIUS]
+    private static final int SLAB_RADIUS = 3;
+    private static final float CENTER = Chunk.SIZE / 2.0f;
+
+    private World world;
+    private OcclusionCuller culler;
+
+    @BeforeEach
+    void setUp() {
+        world = new World();
+        int min = -SLAB_RADIUS * Chunk.SIZE;
+        int max = (SLAB_RADIUS + 1) * Chunk.SIZE;
+        for (int y = 0; y < Chunk.SIZE; y++) {
+            for (int z = min; z < max; z++) {
+                for (int x = min; x < max; x++) {
+                    world.setBlock(x, y, z, 0);
+                }
+            }
+        }
+        // One block in the chunk right under the middle of the slab
+        world.setBlock(8, -8, 8, 0);
+
+        culler = new OcclusionCuller();
+        world.addListener(culler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        culler.close();
+    }
+
+    private static Matrix4f camera(float eyeY, float upZ) {
+        return camera(CENTER, eyeY, CENTER, 0.0f, upZ);
+    }
+
+    private static Matrix4f camera(float eyeX, float eyeY, float eyeZ, float upX, float upZ) {
+        return new Matrix4f()
+            .perspective((float) Math.toRadians(70.0), 16.0f / 9.0f, 0.1f, 500.0f)
+            .lookAt(eyeX, eyeY, eyeZ, eyeX, 0.0f, eyeZ, upX, 0.0f, upZ);
+    }
+
+    @Test
+    void chunkUnderSlabIsOccludedFromAbove() {
+        culler.cullNow(world, camera(60.0f, -1.0f));
+
+        assertFalse(culler.isChunkVisible(0, -1, 0));
+        assertTrue(culler.getOccludedCount() > 0);
+    }
+
+    @Test
+    void chunkUnderSlabIsVisibleFromBelow() {
+        culler.cullNow(world, camera(-60.0f, 1.0f));
+
+        assertTrue(culler.isChunkVisible(0, -1, 0));
+    }
+
+    @Test
+    void surfaceChunksStayVisible() {
+        for (Matrix4f pose : new Matrix4f[] {camera(60.0f, -1.0f), camera(-60.0f, 1.0f)}) {
+            culler.cullNow(world, pose);
+            for (int cz = -SLAB_RADIUS; cz <= SLAB_RADIUS; cz++) {
+                for (int cx = -SLAB_RADIUS; cx <= SLAB_RADIUS; cx++) {
+                    assertTrue(culler.isChunkVisible(cx, 0, cz), "chunk " + cx + ", 0, " + cz);
+                }
+            }
+        }
+    }
+
+    @Test
+    void chunkPokingPastSlabEdgeBySubTexelStaysVisible() {
+        // A buried chunk flush with the slab's +x edge. Seen from high above just
+        // past that edge, perspective pushes it out past the edge by a fraction
+        // of a texel, inside the texel the slab only partly covers.
+        int edgeChunk = SLAB_RADIUS;
+        world.setBlock(edgeChunk * Chunk.SIZE + 8, -8, 8, 0);
+        float edgeX = (SLAB_RADIUS + 1) * Chunk.SIZE - 0.5f;
+        culler.cullNow(world, camera(edgeX + 1.25f, 160.0f, CENTER, 0.0f, -1.0f));
+
+        assertTrue(culler.isChunkVisible(edgeChunk, -1, 0));
+        assertFalse(culler.isChunkVisible(0, -1, 0));
+    }
+
+    @Test
+    void editsInvalidateOccluders() {
+        Matrix4f above = camera(60.0f, -1.0f);
+        culler.cullNow(world, above);
+        assertFalse(culler.isChunkVisible(0, -1, 0));
+
+        // A hole through the slab right above the buried chunk
+        for (int y = 0; y < Chunk.SIZE; y++) {
+            world.removeBlock(8, y, 8);
+        }
+        culler.cullNow(world, above);
+        assertTrue(culler.isChunkVisible(0, -1, 0));
+    }
+
+    @Test
+    void resultsHoldWhileCameraStaysClose() {
+        culler.cullNow(world, camera(60.0f, -1.0f));
+
+        // Turning in place and a small step both keep the pass
+        culler.setCamera(camera(CENTER, 60.0f, CENTER, 1.0f, 0.0f));
+        assertFalse(culler.isChunkVisible(0, -1, 0));
+        culler.setCamera(camera(CENTER + OcclusionCuller.MAX_CAMERA_DRIFT * 0.5f, 60.0f, CENTER, 0.0f, -1.0f));
+        assertFalse(culler.isChunkVisible(0, -1, 0));
+    }
+
+    @Test
+    void staleResultsAreIgnoredOnceCameraMovesAway() {
+        culler.cullNow(world, camera(60.0f, -1.0f));
+        assertFalse(culler.isChunkVisible(0, -1, 0));
+
+        // The next pass has not finished yet, but the camera is now below the slab
+        culler.setCamera(camera(-60.0f, 1.0f));
+        assertTrue(culler.isChunkVisible(0, -1, 0));
+        assertEquals(0, culler.getOccludedCount());
+    }
+}